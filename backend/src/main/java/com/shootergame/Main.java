@@ -3,14 +3,17 @@ package com.shootergame;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.InetSocketAddress;
+import java.util.List;
 
 import org.jspace.SequentialSpace;
 import org.jspace.Space;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.shootergame.cluster.ClusterFrontend;
+import com.shootergame.cluster.SimulationNode;
 import com.shootergame.game.GameLoop;
-import com.shootergame.game.input.InputConsumer;
+import com.shootergame.game.map.MapRepository;
 import com.shootergame.network.NetworkServer;
 
 /**
@@ -22,6 +25,14 @@ public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
     public static void main(String[] args) throws Exception {
+        // Load every collision map once; worlds share these instances
+        MapRepository.preload();
+
+        if (args.length > 0 && "node".equals(args[0])) {
+            runNode(args);
+            return;
+        }
+
         // Create tuple space for inter-component communication
         Space space = new SequentialSpace();
 
@@ -29,13 +40,18 @@ public class Main {
         NetworkServer server = new NetworkServer(new InetSocketAddress("0.0.0.0", 3000), space);
         server.start();
 
-        // Start game loop and world state
-        GameLoop gameLoop = new GameLoop(space, server);
-        gameLoop.start();
-
-        // Start input consumer (blocking operation in separate thread)
-        InputConsumer inputConsumer = new InputConsumer(space, gameLoop);
-        inputConsumer.start();
+        // Simulate locally, or relay every game to the configured simulation nodes
+        List<String> nodes = ClusterFrontend.configuredNodes();
+        GameLoop gameLoop = nodes.isEmpty() ? new GameLoop(server) : null;
+        ClusterFrontend frontend = nodes.isEmpty() ? null : new ClusterFrontend(nodes, server);
+        if (gameLoop != null) {
+            // Inputs are routed straight to each world's queue
+            gameLoop.start();
+        } else {
+            server.setInputSink(frontend::submitInput);
+            server.setMembershipSink(frontend::submitMembership);
+            logger.info("Relaying games to simulation nodes {}", nodes);
+        }
 
         // Start console input handler
         Thread consoleThread = new Thread(() -> {
@@ -51,8 +67,31 @@ public class Main {
                             logger.info("Shutdown requested");
                             System.exit(0);
                             break;
+                        case "stats":
+                            if (gameLoop != null) {
+                                logger.info("Tick shard stats:{}{}", System.lineSeparator(),
+                                    gameLoop.getTickEngine().describe());
+                                logger.info("Snapshot encoders: {}", gameLoop.getSnapshotPublisher());
+                            } else {
+                                logger.info("Games by node:{}{}", System.lineSeparator(), frontend.describe());
+                            }
+                            logger.info("Snapshot bandwidth: {}", server.getSnapshotMetrics());
+                            logger.info("Send queues: {}", server.getSendQueues());
+                            logger.info("Maps ({} bytes):{}{}", MapRepository.footprintBytes(),
+                                System.lineSeparator(), MapRepository.describe());
+                            break;
                         default:
-                            logger.info("Unknown command: {}", line);
+                            String[] words = line.split("\\s+");
+                            if (words.length == 3 && "migrate".equals(words[0]) && frontend != null) {
+                                // migrate <gameId> <host:port>
+                                try {
+                                    frontend.migrate(words[1], words[2]);
+                                } catch (Exception e) {
+                                    logger.error("Migration of game={} failed", words[1], e);
+                                }
+                            } else {
+                                logger.info("Unknown command: {}", line);
+                            }
                     }
                 }
             } catch (Exception e) {
@@ -66,12 +105,11 @@ public class Main {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down server and game loop...");
             try {
-                inputConsumer.stop();
-            } catch (Exception e) {
-                logger.error("Error stopping input consumer", e);
-            }
-            try {
-                gameLoop.stop();
+                if (gameLoop != null) {
+                    gameLoop.stop();
+                } else {
+                    frontend.stop();
+                }
             } catch (Exception e) {
                 logger.error("Error stopping game loop", e);
             }
@@ -85,4 +123,17 @@ public class Main {
         // Keep main thread alive
         Thread.currentThread().join();
     }
+
+    /**
+     * Run as a simulation node: {@code node <port> [host]}. Games arrive from a
+     * front-end listing this node in SIM_NODES.
+     */
+    private static void runNode(String[] args) throws InterruptedException {
+        String port = args.length > 1 ? args[1] : "9101";
+        String host = args.length > 2 ? args[2] : "127.0.0.1";
+        SimulationNode node = new SimulationNode(host + ":" + port);
+        node.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(node::stop));
+        Thread.currentThread().join();
+    }
 }
@@ -0,0 +1,534 @@
+package com.shootergame.cluster;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jspace.ActualField;
+import org.jspace.FormalField;
+import org.jspace.RemoteSpace;
+import org.jspace.Space;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootergame.config.SharedConfig;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+import com.shootergame.util.JsonSerializer;
+
+/**
+ * Front-end side of distributed hosting: places each game on one of the
+ * simulation nodes listed in SIM_NODES through a {@link GameRouter}, and relays
+ * the game over that node's game-scoped remote space. Joins, leaves and inputs
+ * go out as tuples; snapshots and messages come back and are handed to the
+ * broadcaster. Live games can be migrated between nodes without ending them.
+ * A game whose node stops answering is lost: its clients are told, and it is
+ * only opened again, with the same players, by a new join or START.
+ */
+public class ClusterFrontend {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterFrontend.class);
+
+    private final GameRouter router;
+    private final GameBroadcaster broadcaster;
+    private final JsonSerializer serializer = new JsonSerializer();
+    private final Map<String, Space> controls = new ConcurrentHashMap<>();
+    // Open games; replaced under the lock on this map when a game is opened or migrated
+    private final Map<String, RemoteGame> games = new ConcurrentHashMap<>();
+    // Games lost with their node, kept for their players and snapshot numbering
+    private final Map<String, RemoteGame> lostGames = new ConcurrentHashMap<>();
+    // How long a control request may wait for its reply
+    private final long requestTimeoutNs =
+        TimeUnit.MILLISECONDS.toNanos(SharedConfig.getInt("NODE_REQUEST_TIMEOUT_MS", 5_000));
+    private volatile boolean running = true;
+
+    /**
+     * @param nodes node specs "host:port" or "host:port@weight"
+     */
+    public ClusterFrontend(List<String> nodes, GameBroadcaster broadcaster) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("at least one simulation node is required");
+        }
+        this.router = GameRouter.of(nodes);
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Simulation nodes from shared config; empty when the server simulates locally.
+     */
+    public static List<String> configuredNodes() {
+        return SharedConfig.getStringList("SIM_NODES");
+    }
+
+    /**
+     * The node hosting, or about to host, a game.
+     */
+    public String nodeFor(String gameId) {
+        return router.nodeFor(gameId);
+    }
+
+    public void submitInput(String gameId, PlayerInput input) {
+        String payload = input.payload() != null ? input.payload() : "";
+        send(gameId, SimulationNode.INPUT, input.playerId(), input.action(), payload);
+    }
+
+    /**
+     * Relay a join or leave. Leaves for games this front-end never opened are
+     * dropped, like the local loop drops leaves for games without a world;
+     * a leave from a lost game takes the player off the list it reopens with.
+     */
+    public void submitMembership(String gameId, MembershipEvent event) {
+        if (!event.joined() && !games.containsKey(gameId) && leaveClosedGame(gameId, event.playerId())) {
+            return;
+        }
+        String kind = event.joined() ? SimulationNode.JOIN : SimulationNode.LEAVE;
+        send(gameId, kind, event.playerId(), "", "");
+    }
+
+    /**
+     * Handle a leave for a game that is not open: forget the player if the game
+     * was lost. Returns false if the game is open after all, so the leave is sent.
+     */
+    private boolean leaveClosedGame(String gameId, int playerId) {
+        // Under the lock, so a reopen either sees the player gone or the leave goes to it
+        synchronized (games) {
+            if (games.containsKey(gameId)) {
+                return false;
+            }
+            RemoteGame lost = lostGames.get(gameId);
+            if (lost != null) {
+                lost.members.remove(playerId);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Move a live game to another node and return how long its inputs and
+     * snapshots were held, in nanoseconds. Inputs arriving meanwhile are queued
+     * and delivered to the new node in order; clients keep their snapshot
+     * sequence, so delta baselines stay valid. A game that is not open is only
+     * placed on the target. If the move fails after the game was exported, the
+     * checkpoint is imported back on the old node and the game resumes there;
+     * a game lost meanwhile stays lost.
+     */
+    public long migrate(String gameId, String target) throws IOException, InterruptedException {
+        synchronized (games) {
+            RemoteGame from = games.get(gameId);
+            if (from == null || from.node.equals(target)) {
+                router.pin(gameId, target);
+                return 0L;
+            }
+            // Connect to the target before pausing, so the pause only covers the move
+            request(target, SimulationNode.PING, gameId, "");
+            long start = System.nanoTime();
+            from.hold();
+            String checkpoint;
+            try {
+                checkpoint = request(from.node, SimulationNode.EXPORT, gameId, "");
+                if (checkpoint.isEmpty()) {
+                    throw new IllegalStateException("node " + from.node + " does not host game " + gameId);
+                }
+            } catch (IOException | RuntimeException e) {
+                from.release(); // nothing was exported, the game stays where it was
+                throw e;
+            }
+            // The old receiver stops at the node's END marker, after the last
+            // message the game sent from there
+            from.pump.join(TimeUnit.NANOSECONDS.toMillis(requestTimeoutNs));
+            if (from.isLost()) {
+                // Its clients were already told, so the exported game is not brought back
+                from.discard();
+                throw new IOException("game " + gameId + " was lost while migrating from node " + from.node);
+            }
+            if (from.pump.isAlive()) {
+                logger.warn("No END from node {} for game={}; dropping what it still sends", from.node, gameId);
+                from.retire();
+            }
+            RemoteGame to;
+            try {
+                request(target, SimulationNode.IMPORT, gameId, checkpoint);
+            } catch (IOException | RuntimeException e) {
+                // The old node no longer runs the game, so it gets the checkpoint back
+                resume(from, checkpoint, e);
+                throw e;
+            }
+            try {
+                to = new RemoteGame(gameId, target, from.history, from.members);
+            } catch (IOException | RuntimeException e) {
+                // The target runs the game but cannot be reached for it; take it back off first
+                abandon(target, gameId);
+                resume(from, checkpoint, e);
+                throw e;
+            }
+            router.pin(gameId, target);
+            // Held tuples go out before the new node is published, so no sender
+            // can get ahead of them; senders still holding the old game are forwarded
+            from.forwardTo(to);
+            games.put(gameId, to);
+            to.pump.start();
+            long held = System.nanoTime() - start;
+            request(from.node, SimulationNode.CLOSE, gameId, "");
+            logger.info("Migrated game={} from {} to {} ({} ms held)",
+                gameId, from.node, target, TimeUnit.NANOSECONDS.toMillis(held));
+            return held;
+        }
+    }
+
+    /**
+     * Import an exported game back on the node it came from, after a failed
+     * move, and deliver what was held meanwhile. Called under the lock on
+     * {@link #games}; if that fails too, the game is lost.
+     */
+    private void resume(RemoteGame from, String checkpoint, Exception cause) throws InterruptedException {
+        try {
+            request(from.node, SimulationNode.IMPORT, from.gameId, checkpoint);
+            RemoteGame back = new RemoteGame(from.gameId, from.node, from.history, from.members);
+            from.forwardTo(back);
+            games.put(from.gameId, back);
+            back.pump.start();
+            logger.warn("Migrating game={} failed ({}); resumed on node {}", from.gameId, cause.getMessage(), from.node);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Migrating game={} failed ({}) and it could not be resumed on node {}: {}",
+                from.gameId, cause.getMessage(), from.node, e.getMessage());
+            from.discard();
+            lose(from);
+        }
+    }
+
+    /**
+     * Best effort: stop and drop a game imported on a node it will not run on.
+     */
+    private void abandon(String node, String gameId) throws InterruptedException {
+        try {
+            request(node, SimulationNode.EXPORT, gameId, "");
+            request(node, SimulationNode.CLOSE, gameId, "");
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not drop game={} from node {}: {}", gameId, node, e.getMessage());
+        }
+    }
+
+    /**
+     * Add a node to the ring and move the open games it now owns onto it.
+     */
+    public void addNode(String node, int weight) throws IOException, InterruptedException {
+        router.addNode(node, weight);
+        rebalance();
+    }
+
+    /**
+     * Move every open game off a node, then take it off the ring.
+     */
+    public void removeNode(String node) throws IOException, InterruptedException {
+        router.removeNode(node);
+        rebalance();
+        controls.remove(node);
+    }
+
+    /**
+     * Move every open game that is not on the node the router places it on.
+     */
+    private void rebalance() throws IOException, InterruptedException {
+        for (RemoteGame game : new ArrayList<>(games.values())) {
+            String owner = router.nodeFor(game.gameId);
+            if (!owner.equals(game.node)) {
+                migrate(game.gameId, owner);
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+        for (RemoteGame game : games.values()) {
+            game.pump.interrupt();
+        }
+    }
+
+    /**
+     * One line per open game with the node hosting it.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (RemoteGame game : games.values()) {
+            sb.append(String.format("game=%s node=%s%n", game.gameId, game.node));
+        }
+        return sb.toString();
+    }
+
+    private void send(String gameId, String kind, int playerId, String action, String payload) {
+        RemoteGame game = null;
+        try {
+            // A lost game is only opened again when a player asks for a game
+            boolean reopens = SimulationNode.JOIN.equals(kind) || "START".equals(action);
+            game = game(gameId, reopens);
+            if (game == null) {
+                if (SimulationNode.LEAVE.equals(kind) && !leaveClosedGame(gameId, playerId)) {
+                    send(gameId, kind, playerId, action, payload); // reopened meanwhile
+                    return;
+                }
+                logger.debug("Dropping {} from player {} for lost game={}", kind, playerId, gameId);
+                return;
+            }
+            game.put(kind, playerId, action, payload);
+            if (SimulationNode.JOIN.equals(kind)) {
+                game.members.add(playerId);
+            } else if (SimulationNode.LEAVE.equals(kind)) {
+                game.members.remove(playerId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            String node = game != null ? game.node : router.nodeFor(gameId);
+            logger.error("Dropping {} from player {} for game={}: node {} unreachable: {}",
+                kind, playerId, gameId, node, e.getMessage());
+            if (game != null) {
+                lose(game);
+            } else {
+                controls.remove(node); // reconnect on the next open
+            }
+        }
+    }
+
+    /**
+     * The open game, opening it if needed. Returns null for a lost game unless
+     * {@code reopen} is set; reopening joins its players again and keeps its
+     * snapshot history, so clients' sequence numbers carry on.
+     */
+    private RemoteGame game(String gameId, boolean reopen) throws IOException, InterruptedException {
+        RemoteGame game = games.get(gameId);
+        if (game != null) {
+            return game;
+        }
+        // Opening is rare and talks to the node, so it is done once under a lock
+        synchronized (games) {
+            game = games.get(gameId);
+            if (game != null) {
+                return game;
+            }
+            RemoteGame lost = lostGames.get(gameId);
+            if (lost != null && !reopen) {
+                return null;
+            }
+            String node = router.nodeFor(gameId);
+            request(node, SimulationNode.OPEN, gameId, "");
+            game = lost != null
+                ? new RemoteGame(gameId, node, lost.history, lost.members)
+                : new RemoteGame(gameId, node, new SnapshotHistory(), ConcurrentHashMap.newKeySet());
+            for (int playerId : game.members) {
+                game.put(SimulationNode.JOIN, playerId, "", "");
+            }
+            games.put(gameId, game);
+            lostGames.remove(gameId);
+            game.pump.start();
+            logger.info("Game={} {} on node {}", gameId, lost != null ? "reopened" : "hosted", node);
+            return game;
+        }
+    }
+
+    /**
+     * Give up on a game whose node failed and tell its clients. Its pump stops
+     * recording snapshots, so a reopened game can take over the history.
+     */
+    private void lose(RemoteGame game) {
+        if (!games.remove(game.gameId, game)) {
+            return; // already lost, or moved on
+        }
+        synchronized (game.history) {
+            game.lost = true;
+        }
+        game.pump.interrupt();
+        // The node's control connection likely went with it; reconnect on the next open
+        controls.remove(game.node);
+        lostGames.put(game.gameId, game);
+        logger.error("Lost game={} on node {}", game.gameId, game.node);
+        Map<String, Object> error = new HashMap<>();
+        error.put("type", "error");
+        error.put("message", "Game lost: its server stopped responding");
+        broadcaster.broadcastToGame(game.gameId, serializer.toJson(error));
+        Map<String, Object> over = new HashMap<>();
+        over.put("type", "game_over");
+        over.put("reason", "lost");
+        broadcaster.broadcastToGame(game.gameId, serializer.toJson(over));
+    }
+
+    /**
+     * Send a control request to a node and wait for the reply carrying its id.
+     * Callers hold the lock on {@link #games}, so a node that does not answer
+     * in time fails the request, and its connection is dropped, rather than
+     * blocking every other game. A reply arriving after that is never taken.
+     */
+    private String request(String node, String op, String gameId, String body)
+            throws IOException, InterruptedException {
+        Space control = controls.get(node);
+        if (control == null) {
+            control = new RemoteSpace(SimulationNode.gateUri(node, SimulationNode.CONTROL));
+            controls.put(node, control);
+        }
+        String requestId = UUID.randomUUID().toString();
+        control.put(SimulationNode.REQUEST, requestId, op, gameId, body);
+        // jSpace has no timed get, so the reply is polled with a growing pause
+        long deadline = System.nanoTime() + requestTimeoutNs;
+        for (long pauseUs = 100; ; pauseUs = Math.min(pauseUs * 2, 10_000)) {
+            Object[] reply = control.getp(new ActualField(SimulationNode.REPLY), new ActualField(requestId),
+                new FormalField(String.class), new FormalField(String.class));
+            if (reply != null) {
+                if (SimulationNode.ERROR.equals(reply[2])) {
+                    throw new IOException("node " + node + " failed " + op + " for game " + gameId + ": " + reply[3]);
+                }
+                return (String) reply[3];
+            }
+            if (System.nanoTime() - deadline > 0) {
+                controls.remove(node, control);
+                throw new IOException("node " + node + " did not answer " + op + " for game " + gameId
+                    + " within " + TimeUnit.NANOSECONDS.toMillis(requestTimeoutNs) + " ms");
+            }
+            TimeUnit.MICROSECONDS.sleep(pauseUs);
+        }
+    }
+
+    /**
+     * A game hosted on a node. Sends and the blocking receive use separate
+     * connections, so a pending receive never holds up an input.
+     */
+    private final class RemoteGame {
+        final String gameId;
+        final String node;
+        final Space inbound;
+        final Space outbound;
+        // Shared with the game's next node, so sequence numbers carry on;
+        // pumps record into it under its lock
+        final SnapshotHistory history;
+        // Players joined and not left, to join again if the game is reopened
+        final Set<Integer> members;
+        final Thread pump;
+        // Guarded by history: set once the game is given up, after which the pump records nothing
+        boolean lost;
+        // Guarded by history: set when a move stops waiting for this receiver, after which it relays nothing
+        private boolean retired;
+        // Guarded by this: tuples queued while migrating, then the game's new home
+        private List<Object[]> held;
+        private RemoteGame movedTo;
+
+        RemoteGame(String gameId, String node, SnapshotHistory history, Set<Integer> members) throws IOException {
+            this.gameId = gameId;
+            this.node = node;
+            this.history = history;
+            this.members = members;
+            this.inbound = new RemoteSpace(SimulationNode.gateUri(node, gameId));
+            this.outbound = new RemoteSpace(SimulationNode.gateUri(node, gameId));
+            this.pump = new Thread(this::pumpOutbound, "Frontend-Outbound-" + gameId);
+            this.pump.setDaemon(true);
+        }
+
+        // One request at a time on the kept connection
+        synchronized void put(String kind, int playerId, String action, String payload) throws InterruptedException {
+            if (movedTo != null) {
+                movedTo.put(kind, playerId, action, payload);
+            } else if (held != null) {
+                held.add(new Object[] {kind, playerId, action, payload});
+            } else {
+                inbound.put(SimulationNode.IN, kind, playerId, action, payload);
+            }
+        }
+
+        synchronized void hold() {
+            held = new ArrayList<>();
+        }
+
+        /**
+         * Send what was held here after all, for a migration that failed
+         * before the game was exported.
+         */
+        synchronized void release() throws InterruptedException {
+            List<Object[]> queued = held;
+            held = null;
+            for (Object[] t : queued) {
+                put((String) t[0], (Integer) t[1], (String) t[2], (String) t[3]);
+            }
+        }
+
+        /**
+         * Stop relaying from this node, for a move that gave up waiting for its END.
+         */
+        void retire() {
+            synchronized (history) {
+                retired = true;
+            }
+            pump.interrupt();
+        }
+
+        boolean isLost() {
+            synchronized (history) {
+                return lost;
+            }
+        }
+
+        private boolean stopped() {
+            synchronized (history) {
+                return lost || retired;
+            }
+        }
+
+        /**
+         * Drop what was held, for a game that is given up.
+         */
+        synchronized void discard() {
+            held = null;
+        }
+
+        /**
+         * Deliver what was held to the game's new home, and forward anything
+         * sent here from now on.
+         */
+        synchronized void forwardTo(RemoteGame next) throws InterruptedException {
+            movedTo = next;
+            for (Object[] t : held) {
+                next.put((String) t[0], (Integer) t[1], (String) t[2], (String) t[3]);
+            }
+            held = null;
+        }
+
+        private void pumpOutbound() {
+            try {
+                while (running) {
+                    Object[] t = outbound.get(new ActualField(SimulationNode.OUT),
+                        new FormalField(String.class), new FormalField(String.class));
+                    String kind = (String) t[1];
+                    String json = (String) t[2];
+                    if (SimulationNode.END.equals(kind)) {
+                        return;
+                    } else if (SimulationNode.STATE.equals(kind)) {
+                        StateSnapshot state = serializer.fromJson(json, StateSnapshot.class);
+                        synchronized (history) {
+                            if (lost || retired) {
+                                return;
+                            }
+                            long seq = history.record(state);
+                            broadcaster.broadcastSnapshot(gameId, seq, state, history);
+                        }
+                    } else if (stopped()) {
+                        return;
+                    } else {
+                        broadcaster.broadcastToGame(gameId, json);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (running && !stopped()) {
+                    logger.error("Receiving game={} from node {} failed: {}", gameId, node, e.getMessage());
+                    lose(this);
+                }
+            }
+        }
+    }
+}
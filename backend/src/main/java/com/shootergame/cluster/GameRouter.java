@@ -0,0 +1,126 @@
+package com.shootergame.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Places games on simulation nodes with a consistent-hash ring. Each node owns
+ * a number of ring points proportional to its weight, so a node with weight 2
+ * hosts about twice the games of a node with weight 1, and adding or removing a
+ * node only moves the games on the arcs it gains or loses. Games that were
+ * migrated are pinned to their node until that node leaves.
+ */
+public class GameRouter {
+
+    // Ring points per unit of weight; enough to keep the spread within a few percent
+    static final int POINTS_PER_WEIGHT = 128;
+
+    // node -> weight, in the order nodes were added; guarded by this
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private volatile NavigableMap<Long, String> ring = Collections.emptyNavigableMap();
+    private final Map<String, String> pinned = new ConcurrentHashMap<>();
+
+    /**
+     * A router over node specs "host:port" or "host:port@weight".
+     */
+    public static GameRouter of(List<String> specs) {
+        GameRouter router = new GameRouter();
+        for (String spec : specs) {
+            int at = spec.lastIndexOf('@');
+            if (at < 0) {
+                router.addNode(spec, 1);
+            } else {
+                router.addNode(spec.substring(0, at), Integer.parseInt(spec.substring(at + 1)));
+            }
+        }
+        return router;
+    }
+
+    public synchronized void addNode(String node, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be at least 1: " + node);
+        }
+        weights.put(node, weight);
+        rebuild();
+    }
+
+    /**
+     * Take a node off the ring; games pinned to it go back to the ring.
+     */
+    public synchronized void removeNode(String node) {
+        if (weights.remove(node) == null) {
+            return;
+        }
+        pinned.values().removeIf(node::equals);
+        rebuild();
+    }
+
+    public synchronized List<String> nodes() {
+        return new ArrayList<>(weights.keySet());
+    }
+
+    public synchronized boolean hasNode(String node) {
+        return weights.containsKey(node);
+    }
+
+    /**
+     * The node hosting a game: its pin if it has one, otherwise the first ring
+     * point at or after the game's hash.
+     */
+    public String nodeFor(String gameId) {
+        String node = pinned.get(gameId);
+        if (node != null) {
+            return node;
+        }
+        NavigableMap<Long, String> r = ring;
+        if (r.isEmpty()) {
+            throw new IllegalStateException("no simulation nodes");
+        }
+        Map.Entry<Long, String> e = r.ceilingEntry(hash(gameId));
+        return e != null ? e.getValue() : r.firstEntry().getValue();
+    }
+
+    /**
+     * Keep a game on a node regardless of the ring, after moving it there.
+     */
+    public void pin(String gameId, String node) {
+        pinned.put(gameId, node);
+    }
+
+    private void rebuild() {
+        NavigableMap<Long, String> next = new TreeMap<>();
+        for (Map.Entry<String, Integer> e : weights.entrySet()) {
+            int points = e.getValue() * POINTS_PER_WEIGHT;
+            for (int i = 0; i < points; i++) {
+                // On the rare collision the earlier node keeps the point
+                next.putIfAbsent(hash(e.getKey() + "#" + i), e.getKey());
+            }
+        }
+        ring = next;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes with a final avalanche, so ids that
+     * differ in one character still land far apart on the ring.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
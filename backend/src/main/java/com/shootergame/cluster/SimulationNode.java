@@ -0,0 +1,277 @@
+package com.shootergame.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jspace.ActualField;
+import org.jspace.FormalField;
+import org.jspace.SequentialSpace;
+import org.jspace.Space;
+import org.jspace.SpaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootergame.game.GameLoop;
+import com.shootergame.game.WorldCheckpoint;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+import com.shootergame.util.JsonSerializer;
+
+/**
+ * Simulates games for a front-end running in another process.
+ * The node exposes a jSpace repository over TCP: a "control" space taking
+ * ("request", requestId, op, gameId, body) tuples and answering each with
+ * ("reply", requestId, status, body), and one space per open game. Request ids
+ * are unique per request, so a reply is never taken by the wrong caller. The
+ * status is "ok", or "error" with the failure in the body.
+ * A game's space carries ("in", kind, playerId, action, payload) tuples from the
+ * front-end and ("out", kind, json) tuples back to it.
+ */
+public class SimulationNode implements GameBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationNode.class);
+
+    static final String CONTROL = "control";
+    static final String REQUEST = "request";
+    static final String REPLY = "reply";
+    static final String OK = "ok";
+    static final String ERROR = "error";
+    // Start hosting a game, empty
+    static final String OPEN = "open";
+    // Pause a game and reply with its checkpoint; its space gets an END marker
+    static final String EXPORT = "export";
+    // Resume a game from the checkpoint in the body
+    static final String IMPORT = "import";
+    // Drop an exported game's space
+    static final String CLOSE = "close";
+    // Nothing; proves the node answers
+    static final String PING = "ping";
+
+    static final String IN = "in";
+    static final String JOIN = "join";
+    static final String LEAVE = "leave";
+    static final String INPUT = "input";
+    // Queued behind everything the front-end sent; ends the game's receiver here
+    static final String STOP = "stop";
+
+    static final String OUT = "out";
+    static final String STATE = "state";
+    static final String MESSAGE = "msg";
+    // Last tuple of an exported game; nothing follows it from this node
+    static final String END = "end";
+
+    private final String address;
+    private final SpaceRepository repository = new SpaceRepository();
+    private final Space control = new SequentialSpace();
+    private final GameLoop gameLoop;
+    private final JsonSerializer serializer = new JsonSerializer();
+    // Receiver thread of every game hosted here
+    private final Map<String, Thread> inbound = new ConcurrentHashMap<>();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param address host:port the node's gate listens on
+     */
+    public SimulationNode(String address) {
+        this.address = address;
+        this.repository.add(CONTROL, control);
+        this.gameLoop = new GameLoop(this);
+    }
+
+    /**
+     * The URI of the gate for a node address; spaces are addressed below it.
+     */
+    static String gateUri(String address, String spaceName) {
+        return "tcp://" + address + "/" + spaceName + "?keep";
+    }
+
+    public void start() {
+        // Build the checkpoint codec now rather than inside the first migration's pause
+        serializer.fromJson(serializer.toJson(gameLoop.getWorldState().checkpoint()), WorldCheckpoint.class);
+        repository.addGate(gateUri(address, ""));
+        gameLoop.start();
+        startThread("Node-Control", this::serveControl);
+        logger.info("Simulation node ready on {}", address);
+    }
+
+    public void stop() {
+        running = false;
+        for (Thread t : threads) {
+            t.interrupt();
+        }
+        gameLoop.stop();
+        repository.shutDown();
+    }
+
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    private Thread startThread(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        threads.add(t);
+        t.start();
+        return t;
+    }
+
+    private void serveControl() {
+        try {
+            while (running) {
+                Object[] request = control.get(new ActualField(REQUEST), new FormalField(String.class),
+                    new FormalField(String.class), new FormalField(String.class), new FormalField(String.class));
+                String requestId = (String) request[1];
+                String op = (String) request[2];
+                String gameId = (String) request[3];
+                String status = OK;
+                String reply;
+                try {
+                    reply = handle(op, gameId, (String) request[4]);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    logger.error("Failed {} for game={}", op, gameId, e);
+                    status = ERROR;
+                    reply = String.valueOf(e.getMessage());
+                }
+                control.put(REPLY, requestId, status, reply);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String handle(String op, String gameId, String body) throws InterruptedException {
+        switch (op) {
+            case OPEN:
+                // A reopen by a restarted front-end finds the game already here
+                if (!inbound.containsKey(gameId)) {
+                    gameLoop.getOrCreateWorld(gameId);
+                    openSpace(gameId);
+                    logger.info("Opened game={} on node {}", gameId, address);
+                }
+                return "";
+            case EXPORT:
+                return export(gameId);
+            case IMPORT:
+                gameLoop.attachWorld(gameId, serializer.fromJson(body, WorldCheckpoint.class));
+                openSpace(gameId);
+                logger.info("Imported game={} on node {}", gameId, address);
+                return "";
+            case PING:
+                return "";
+            case CLOSE:
+                if (!inbound.containsKey(gameId)) {
+                    repository.remove(gameId);
+                }
+                return "";
+            default:
+                logger.warn("Unknown control request {} for game={}", op, gameId);
+                return "";
+        }
+    }
+
+    /**
+     * Give the game a fresh space and a receiver for it, replacing any space
+     * left from exporting it.
+     */
+    private void openSpace(String gameId) throws InterruptedException {
+        stopReceiver(gameId);
+        repository.remove(gameId);
+        Space space = new SequentialSpace();
+        repository.add(gameId, space);
+        inbound.put(gameId, startThread("Node-Inbound-" + gameId, () -> pumpInbound(gameId, space)));
+    }
+
+    /**
+     * Let the receiver hand over everything queued before now, then end it.
+     */
+    private void stopReceiver(String gameId) throws InterruptedException {
+        Thread receiver = inbound.remove(gameId);
+        Space space = repository.get(gameId);
+        if (receiver != null && space != null) {
+            space.put(IN, STOP, 0, "", "");
+            receiver.join();
+            threads.remove(receiver);
+        }
+    }
+
+    /**
+     * Pause a game and return its checkpoint as JSON, or "" if it is not hosted here.
+     * Everything the front-end sent before the request is applied first.
+     */
+    private String export(String gameId) throws InterruptedException {
+        if (!inbound.containsKey(gameId)) {
+            return "";
+        }
+        stopReceiver(gameId);
+        // Returns once the game's last messages are out, so END follows them
+        WorldCheckpoint checkpoint = gameLoop.detachWorld(gameId);
+        repository.get(gameId).put(OUT, END, "");
+        logger.info("Exported game={} from node {}", gameId, address);
+        return checkpoint != null ? serializer.toJson(checkpoint) : "";
+    }
+
+    /**
+     * Hand the front-end's tuples to the game loop in arrival order, so a join is
+     * always queued before the inputs that follow it.
+     */
+    private void pumpInbound(String gameId, Space space) {
+        try {
+            while (running) {
+                Object[] t = space.get(new ActualField(IN), new FormalField(String.class),
+                    new FormalField(Integer.class), new FormalField(String.class), new FormalField(String.class));
+                String kind = (String) t[1];
+                int playerId = (Integer) t[2];
+                if (STOP.equals(kind)) {
+                    return;
+                } else if (JOIN.equals(kind)) {
+                    gameLoop.submitMembership(gameId, MembershipEvent.join(playerId));
+                } else if (LEAVE.equals(kind)) {
+                    gameLoop.submitMembership(gameId, MembershipEvent.leave(playerId));
+                } else {
+                    gameLoop.submitInput(gameId, new PlayerInput(playerId, (String) t[3], (String) t[4]));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void broadcastToGame(String gameId, String message) {
+        publish(gameId, MESSAGE, message);
+    }
+
+    /**
+     * Ships the snapshot only; the front-end keeps the history, since the
+     * acknowledgements it is diffed against arrive there.
+     */
+    @Override
+    public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {
+        publish(gameId, STATE, serializer.toJson(state));
+    }
+
+    private void publish(String gameId, String kind, String json) {
+        Space space = repository.get(gameId);
+        if (space == null) {
+            return; // not opened by any front-end, nobody to tell
+        }
+        try {
+            if (STATE.equals(kind)) {
+                // Only the latest snapshot is worth sending; one still waiting is replaced,
+                // while messages keep their place. One encoder publishes a game at a time.
+                space.getp(new ActualField(OUT), new ActualField(STATE), new FormalField(String.class));
+            }
+            space.put(OUT, kind, json);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
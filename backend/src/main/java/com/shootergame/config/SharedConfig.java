@@ -3,9 +3,12 @@ package com.shootergame.config;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,4 +77,17 @@ public final class SharedConfig {
         }
         return defaultValue;
     }
+
+    public static List<String> getStringList(String key) {
+        List<String> values = new ArrayList<>();
+        try {
+            if (json != null && json.has(key)) {
+                for (JsonElement e : json.getAsJsonArray(key)) values.add(e.getAsString());
+            }
+        } catch (Exception e) {
+            logger.warn("Invalid string list for key {}", key, e);
+            values.clear();
+        }
+        return values;
+    }
 }
@@ -4,13 +4,17 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
-import org.jspace.Space;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.shootergame.config.SharedConfig;
 import com.shootergame.game.entity.PlayerState;
 import com.shootergame.game.entity.PowerupState;
-import com.shootergame.game.entity.ProjectileState;
+import com.shootergame.game.entity.ProjectileStore;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
 import com.shootergame.network.NetworkServer;
 import com.shootergame.util.JsonSerializer;
 
@@ -22,131 +26,145 @@ public class GameLoop {
 
     private static final Logger logger = LoggerFactory.getLogger(GameLoop.class);
 
-    private final Space space;
-    private final NetworkServer server;
     private final Map<String, WorldState> worlds;
-    private final TickScheduler tickScheduler;
+    private final ShardedTickEngine tickEngine;
+    private final SnapshotPublisher publisher;
     private final JsonSerializer serializer;
     private volatile boolean running = true;
-    private volatile long lastTick = 0L;
-    // Throttle how often we broadcast full world state to clients
-    private final long broadcastIntervalNs = TimeUnit.MILLISECONDS.toNanos(50); // ~50ms
-    private volatile long lastBroadcastNs = 0L;
-
-    public GameLoop(Space space, NetworkServer server) {
-        this.space = space;
-        this.server = server;
+    // Defaults for new worlds: fixed simulation step, catch-up limit and snapshot rate
+    private final long stepNs = TimeUnit.SECONDS.toNanos(1) / SharedConfig.getInt("SIM_HZ", 50);
+    private final int maxCatchUpSteps = SharedConfig.getInt("MAX_CATCHUP_STEPS", 5);
+    private final long snapshotIntervalNs = TimeUnit.SECONDS.toNanos(1) / SharedConfig.getInt("SNAPSHOT_HZ", 20);
+
+    public GameLoop(NetworkServer server) {
+        this((GameBroadcaster) server);
+        if (server != null) {
+            server.setInputSink(this::submitInput);
+            server.setMembershipSink(this::submitMembership);
+        }
+    }
+
+    /**
+     * A loop whose inputs are submitted by the caller, for simulation nodes
+     * that receive them from another process.
+     */
+    public GameLoop(GameBroadcaster server) {
         this.worlds = new ConcurrentHashMap<>();
-        // create default world
-        this.worlds.put("default", new WorldState(space, "default"));
         this.serializer = new JsonSerializer();
-        // Run at ~50Hz (20ms) for smoother updates
-        this.tickScheduler = new TickScheduler(this::tick, 20);
+        // Tick about once per simulation step (50Hz by default), one tick shard per core by default
+        int shards = SharedConfig.getInt("TICK_SHARDS", Runtime.getRuntime().availableProcessors());
+        this.tickEngine = new ShardedTickEngine(this::tickWorld, Math.max(1L, TimeUnit.NANOSECONDS.toMillis(stepNs)), shards);
+        // Snapshots are encoded and sent off the tick threads; 0 keeps it on them
+        int encoders = SharedConfig.getInt("SNAPSHOT_ENCODERS", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.publisher = new SnapshotPublisher(server, encoders);
+        // create default world
+        getOrCreateWorld("default");
     }
 
     public void start() {
-        tickScheduler.start();
+        tickEngine.start();
     }
 
     public void stop() {
         running = false;
-        tickScheduler.stop();
+        tickEngine.stop();
+        publisher.shutdown();
         logger.info("GameLoop stopped");
     }
 
     /**
-     * Main tick function called at fixed intervals.
+     * Advance a single world by one tick: take in what arrived since the last
+     * tick, then simulate the fixed steps that are due, each after the inputs
+     * meant for it. Called by the shard that owns the world, so a world is
+     * never ticked by two threads at once.
      */
-    private void tick() {
-        try {
-            long now = System.nanoTime();
-            double dt = (lastTick == 0L) ? 0.05 : (now - lastTick) / 1_000_000_000.0;
-            lastTick = now;
-            boolean shouldBroadcast = (now - lastBroadcastNs) >= broadcastIntervalNs;
-
-            // Run simulation for each world (game)
-            for (Map.Entry<String, WorldState> entry : worlds.entrySet()) {
-                String gid = entry.getKey();
-                WorldState world = entry.getValue();
-
-                // Sync registered players for this world
-                world.syncRegisteredPlayers();
-                // Ensure player bounds reflect map size
-                double mapW = world.getCollisionMap().getPixelWidth();
-                double mapH = world.getCollisionMap().getPixelHeight();
-                for (PlayerState ps : world.getPlayers().values()) {
-                    ps.setBounds(mapW, mapH, 30.0);
-                    ps.setCollisionMap(world.getCollisionMap());
-                }
+    private void tickWorld(String gid, WorldState world, long now) {
+        int steps = world.stepsDue(now);
+        long firstStep = world.getSimulatedSteps() - steps + 1;
+
+        // Joins and leaves first, so a new player's first input finds it present
+        world.applyMembershipChanges();
+
+        // Unstamped inputs are for the first step this tick runs
+        world.scheduleInputs(firstStep);
+
+        // Every step is the same length and takes the inputs stamped for it, so
+        // the same inputs give the same world however ticks group the steps
+        double dt = world.getStepSeconds();
+        for (int i = 0; i < steps; i++) {
+            world.applyScheduledInputs(firstStep + i, input -> applyInput(gid, world, input));
+            step(gid, world, dt);
+        }
 
-            // Update all alive players
-            for (PlayerState ps : world.getPlayers().values()) {
-                if (ps.isAlive()) {
-                    ps.update(dt);
-                }
+        // Hand state for clients in this game to the encoder stage, at its own rate
+        if (world.isBroadcastDue(now)) {
+            broadcastStateForGame(gid, world);
+            world.markBroadcast(now);
+        }
+    }
+
+    /**
+     * Simulate one fixed step of a world.
+     */
+    private void step(String gid, WorldState world, double dt) {
+        // Ensure player bounds reflect map size
+        double mapW = world.getCollisionMap().getPixelWidth();
+        double mapH = world.getCollisionMap().getPixelHeight();
+        for (PlayerState ps : world.getPlayers().values()) {
+            ps.setBounds(mapW, mapH, 30.0);
+            ps.setCollisionMap(world.getCollisionMap());
+        }
+
+        // Update all alive players
+        for (PlayerState ps : world.getPlayers().values()) {
+            if (ps.isAlive()) {
+                ps.update(dt);
             }
-                
-                // Update powerups
-                world.updatePowerups(dt);
-                
-                // Check powerup collisions
-                world.checkPowerupCollisions();
-
-                // Handle firing requests (only for alive players)
-                for (PlayerState ps : world.getPlayers().values()) {
-                    if (ps.isAlive() && ps.fireRequested && world.canPlayerShoot(ps.id)) {
-                        handleFireForWorld(world, ps);
-                        world.applyShooting(ps.id);
-                        ps.fireRequested = false;
-                    }
-                }
+        }
 
-                // Update projectiles
-                for (ProjectileState p : world.getProjectiles().values()) {
-                    p.update(dt);
-                }
+        world.updatePlayerGrid();
 
-            // Check collisions between projectiles and players
-            checkCollisions(world);
-
-                // Remove dead/out-of-bounds projectiles
-                world.getProjectiles().keySet()
-                    .removeIf(id -> {
-                        ProjectileState p = world.getProjectiles().get(id);
-                        return p != null && (!p.isAlive() || p.isOutOfBounds());
-                    });
-
-                // Check win condition: last player alive wins
-                try {
-                    int aliveCount = (int) world.getPlayers().values().stream().filter(PlayerState::isAlive).count();
-                    if (world.isMatchRunning() && aliveCount <= 1) {
-                        Integer winner = null;
-                        if (aliveCount == 1) {
-                            for (PlayerState p : world.getPlayers().values()) {
-                                if (p.isAlive()) { winner = p.id; break; }
-                            }
-                        }
-                        Map<String, Object> over = Map.of("type", "game_over", "winner", winner);
-                        String overJson = serializer.toJson(over);
-                        server.broadcastToGame(gid, overJson);
-                        world.setMatchRunning(false);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error while evaluating win condition for game=" + gid, e);
-                }
+        // Update powerups
+        world.updatePowerups(dt);
 
-                // Broadcast state to clients in this game only (throttled)
-                if (shouldBroadcast) {
-                    broadcastStateForGame(gid, world);
-                }
-            }
+        // Check powerup collisions
+        world.checkPowerupCollisions();
 
-            if (shouldBroadcast) {
-                lastBroadcastNs = now;
+        // Handle firing requests (only for alive players)
+        for (PlayerState ps : world.getPlayers().values()) {
+            if (ps.isAlive() && ps.fireRequested && world.canPlayerShoot(ps.id)) {
+                handleFireForWorld(world, ps);
+                world.applyShooting(ps.id);
+                ps.fireRequested = false;
             }
+        }
+
+        // Update projectiles
+        world.getProjectiles().update(dt);
+
+        // Check collisions between projectiles and players
+        checkCollisions(world);
+
+        // Remove dead/out-of-bounds projectiles
+        world.getProjectiles().removeDead();
 
+        // Check win condition: last player alive wins
+        try {
+            int aliveCount = (int) world.getPlayers().values().stream().filter(PlayerState::isAlive).count();
+            if (world.isMatchRunning() && aliveCount <= 1) {
+                Integer winner = null;
+                if (aliveCount == 1) {
+                    for (PlayerState p : world.getPlayers().values()) {
+                        if (p.isAlive()) { winner = p.id; break; }
+                    }
+                }
+                Map<String, Object> over = Map.of("type", "game_over", "winner", winner);
+                String overJson = serializer.toJson(over);
+                publisher.publishMessage(gid, overJson);
+                world.setMatchRunning(false);
+            }
         } catch (Exception e) {
-            logger.error("Error in tick", e);
+            logger.error("Error while evaluating win condition for game=" + gid, e);
         }
     }
 
@@ -185,8 +203,7 @@ public class GameLoop {
         // Find the world that contains this player and spawn projectile there (best-effort)
         for (WorldState ws : worlds.values()) {
             if (ws.getPlayers().containsKey(ps.id)) {
-                ProjectileState proj = ws.spawnProjectile(ps, vx, vy);
-                proj.setBounds(ws.getCollisionMap().getPixelWidth(), ws.getCollisionMap().getPixelHeight(), 10.0);
+                ws.spawnProjectile(ps, vx, vy);
                 return;
             }
         }
@@ -242,75 +259,164 @@ public class GameLoop {
     }
 
     private void broadcastStateForGame(String gameId, WorldState world) {
-        try {
-            // Only send alive players to clients
-            var alivePlayers = world.getPlayers().values().stream()
-                .filter(PlayerState::isAlive)
-                .toList();
-            
-            Map<String, Object> state = Map.of(
-                "type", "state",
-                "players", alivePlayers,
-                "projectiles", world.getProjectiles().values(),
-                "powerups", world.getPowerups().values(),
-                "map", world.getCurrentMapId(),
-                "running", world.isMatchRunning()
-            );
-            String json = serializer.toJson(state);
-            logger.debug("Broadcasting state for game={}", gameId);
-            server.broadcastToGame(gameId, json);
-        } catch (Exception e) {
-            logger.error("Error broadcasting state for game=" + gameId, e);
-        }
+        // Views, not live entities: frozen here, so the encoders never read the world
+        publisher.publish(gameId, world.getSnapshotHistory(), StateSnapshot.of(world));
     }
 
 
+    private static final double HIT_DISTANCE = 15 + 8; // player radius + projectile radius
+
     /**
      * Check collisions between projectiles and players.
      * If a projectile hits a player (not the owner), the player loses a life.
+     * Candidates come from the world's player grid, which must be up to date.
      */
-    private void checkCollisions(WorldState world) {
-        for (ProjectileState proj : world.getProjectiles().values()) {
-            if (!proj.isAlive()) {
+    public static void checkCollisions(WorldState world) {
+        ProjectileStore projectiles = world.getProjectiles();
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (!projectiles.isAlive(i)) {
                 continue; // already expired (e.g., hit a wall)
             }
-            for (PlayerState player : world.getPlayers().values()) {
+            double px = projectiles.x(i);
+            double py = projectiles.y(i);
+            for (PlayerState player : world.nearbyPlayers(px, py, HIT_DISTANCE)) {
                 // Don't collide with owner or if player is invulnerable
-                if (proj.owner == player.id || player.isInvulnerable()) {
+                if (projectiles.owner(i) == player.id || player.isInvulnerable()) {
                     continue;
                 }
 
                 // Simple circle-based collision detection (30 is player size, ~8 is projectile size)
-                double dx = proj.x - player.x;
-                double dy = proj.y - player.y;
-                double distance = Math.sqrt(dx * dx + dy * dy);
-                double collisionDistance = 15 + 8; // player radius + projectile radius
+                double dx = px - player.x;
+                double dy = py - player.y;
 
-                if (distance < collisionDistance) {
+                if (dx * dx + dy * dy < HIT_DISTANCE * HIT_DISTANCE) {
                     player.hit();
                     // Mark projectile as dead
-                    proj.life = 0;
+                    projectiles.kill(i);
                     logger.info("Player {} hit by projectile {}! Lives remaining: {}", 
-                        player.id, proj.id, player.lives);
+                        player.id, projectiles.id(i), player.lives);
                     break; // projectile can only hit one player
                 }
             }
         }
     }
 
+    /**
+     * The "default" world. Its state belongs to its tick thread, so only read it
+     * while the loop is not running.
+     */
     public WorldState getWorldState() {
         return worlds.get("default");
     }
 
-    public void applyInput(String gameId, com.shootergame.game.input.PlayerInput input) {
-        WorldState ws = worlds.computeIfAbsent(gameId, gid -> new WorldState(space, gid));
+    /**
+     * Per-shard tick statistics.
+     */
+    public ShardedTickEngine getTickEngine() {
+        return tickEngine;
+    }
+
+    /**
+     * The stage that encodes and sends snapshots.
+     */
+    public SnapshotPublisher getSnapshotPublisher() {
+        return publisher;
+    }
+
+    /**
+     * Advance one world by a single tick on the calling thread, creating it on first use.
+     * For benchmarks; never call this for a world that a running engine is ticking.
+     */
+    public void tickOnce(String gameId, long nowNs) {
+        tickWorld(gameId, getOrCreateWorld(gameId), nowNs);
+    }
+
+    /**
+     * The world for a game, created and assigned to a tick shard on first use.
+     */
+    public WorldState getOrCreateWorld(String gameId) {
+        return worlds.computeIfAbsent(gameId, gid -> {
+            WorldState ws = newWorld(gid);
+            tickEngine.assign(gid, ws);
+            return ws;
+        });
+    }
+
+    private WorldState newWorld(String gameId) {
+        WorldState ws = new WorldState(gameId);
+        ws.setTimestep(stepNs, maxCatchUpSteps);
+        ws.setSnapshotInterval(snapshotIntervalNs);
+        return ws;
+    }
+
+    /**
+     * Pause a world and take it out of this loop for migration. Queued joins
+     * and leaves are applied first, and queued inputs go into the checkpoint
+     * with the step they are for, so nothing sent before the pause is lost.
+     * Snapshots and messages the world published are sent before this returns.
+     * The caller must have stopped submitting for the game, or a new world
+     * would be created. Returns null if the game has no world here.
+     */
+    public WorldCheckpoint detachWorld(String gameId) throws InterruptedException {
+        WorldState ws = worlds.get(gameId);
+        if (ws == null) {
+            return null;
+        }
+        tickEngine.remove(gameId);
+        worlds.remove(gameId);
+        publisher.remove(gameId);
+        ws.applyMembershipChanges();
+        ws.scheduleInputs(ws.getSimulatedSteps() + 1);
+        return ws.checkpoint();
+    }
+
+    /**
+     * Resume a migrated world in this loop, replacing any world the game had here.
+     */
+    public WorldState attachWorld(String gameId, WorldCheckpoint checkpoint) throws InterruptedException {
+        WorldState ws = newWorld(gameId);
+        ws.restore(checkpoint);
+        WorldState previous = worlds.put(gameId, ws);
+        if (previous != null) {
+            tickEngine.remove(gameId);
+        }
+        ws.resumeClock(System.nanoTime());
+        tickEngine.assign(gameId, ws);
+        return ws;
+    }
+
+    /**
+     * Queue an input for a game, creating the world on first use.
+     * Called from network threads; the input is applied by the world's tick.
+     */
+    public void submitInput(String gameId, PlayerInput input) {
+        getOrCreateWorld(gameId).enqueueInput(input);
+    }
+
+    /**
+     * Queue a join or leave for a game. Joins create the world on first use;
+     * leaves for a game that has no world are dropped.
+     */
+    public void submitMembership(String gameId, MembershipEvent event) {
+        WorldState ws = event.joined() ? getOrCreateWorld(gameId) : worlds.get(gameId);
+        if (ws != null) {
+            ws.enqueueMembership(event);
+        }
+    }
+
+    private void applyInput(String gameId, WorldState ws, PlayerInput input) {
+        // Only members steer; anything else would spawn a player that never leaves
+        if (!"START".equals(input.action()) && !ws.getPlayers().containsKey(input.playerId())) {
+            logger.debug("Dropping input from non-member player {} in game={}", input.playerId(), gameId);
+            return;
+        }
         // If this is a START input, broadcast a game_start message so clients can reset UI
         try {
             if ("START".equals(input.action())) {
                 String mapId = input.payload() != null && !input.payload().isBlank() ? input.payload() : ws.getCurrentMapId();
                 Map<String, Object> startMsg = Map.of("type", "game_start", "map", mapId);
                 String startJson = serializer.toJson(startMsg);
-                server.broadcastToGame(gameId, startJson);
+                publisher.publishMessage(gameId, startJson);
             }
         } catch (Exception ex) {
             logger.debug("Failed to broadcast game_start", ex);
@@ -0,0 +1,161 @@
+package com.shootergame.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spreads worlds over a fixed number of tick shards so rooms tick in parallel.
+ * New worlds go to the least loaded shard; a monitor moves worlds off a shard
+ * whose tick cost gets close to the tick budget.
+ */
+public class ShardedTickEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedTickEngine.class);
+
+    // A shard is considered hot once its worlds use this share of the tick budget
+    private static final double HOT_LOAD = 0.5;
+    private static final long REBALANCE_INTERVAL_MS = 1000;
+
+    /** Callback that advances a single world by one tick. */
+    @FunctionalInterface
+    public interface WorldTicker {
+        void tick(String gameId, WorldState world, long nowNs);
+    }
+
+    private final List<TickShard> shards = new ArrayList<>();
+    private final long budgetNs;
+    private final ScheduledExecutorService monitor;
+
+    public ShardedTickEngine(WorldTicker ticker, long tickIntervalMs, int shardCount) {
+        int count = Math.max(1, shardCount);
+        for (int i = 0; i < count; i++) {
+            shards.add(new TickShard(i, ticker, tickIntervalMs));
+        }
+        this.budgetNs = TimeUnit.MILLISECONDS.toNanos(tickIntervalMs);
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "GameLoop-Rebalancer");
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Tick engine using {} shard(s)", count);
+    }
+
+    public void start() {
+        for (TickShard shard : shards) {
+            shard.start();
+        }
+        monitor.scheduleAtFixedRate(this::rebalance, REBALANCE_INTERVAL_MS, REBALANCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        monitor.shutdownNow();
+        for (TickShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    /**
+     * Assign a new world to the least loaded shard.
+     */
+    public synchronized void assign(String gameId, WorldState world) {
+        TickShard target = shards.get(0);
+        for (TickShard shard : shards) {
+            if (shard.load() < target.load()
+                || (shard.load() == target.load() && shard.entries().size() < target.entries().size())) {
+                target = shard;
+            }
+        }
+        target.add(new TickShard.Entry(gameId, world));
+        logger.debug("Assigned game={} to tick shard {}", gameId, target.getIndex());
+    }
+
+    /**
+     * Stop ticking a world, waiting for a tick in progress to finish.
+     * Returns false if no shard had it.
+     */
+    public synchronized boolean remove(String gameId) throws InterruptedException {
+        // A move queued by the last rebalance lands after its source shard's removal
+        // runs, possibly on a shard already checked; no new move can start meanwhile,
+        // so a second pass is sure to find it
+        for (int pass = 0; pass < 2; pass++) {
+            for (TickShard shard : shards) {
+                if (shard.remove(gameId)) {
+                    logger.debug("Removed game={} from tick shard {}", gameId, shard.getIndex());
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move one world from the hottest shard to the coldest one when that
+     * narrows the gap between them.
+     */
+    synchronized void rebalance() {
+        try {
+            if (shards.size() < 2) return;
+            TickShard hot = shards.get(0);
+            TickShard cold = shards.get(0);
+            for (TickShard shard : shards) {
+                if (shard.load() > hot.load()) hot = shard;
+                if (shard.load() < cold.load()) cold = shard;
+            }
+            double hotLoad = hot.load();
+            double coldLoad = cold.load();
+            if (hot == cold || hotLoad < HOT_LOAD * budgetNs || hot.entries().size() < 2) {
+                return;
+            }
+            // Pick the world that leaves the two shards closest to even
+            TickShard.Entry best = null;
+            double bestGap = hotLoad - coldLoad;
+            for (TickShard.Entry e : hot.entries()) {
+                double gap = Math.abs((hotLoad - e.costNs) - (coldLoad + e.costNs));
+                if (gap < bestGap) {
+                    bestGap = gap;
+                    best = e;
+                }
+            }
+            if (best != null) {
+                hot.moveTo(best, cold);
+            }
+        } catch (Exception e) {
+            logger.error("Error rebalancing tick shards", e);
+        }
+    }
+
+    /**
+     * Per-shard tick duration statistics, indexed by shard.
+     */
+    public List<TickStats> getShardStats() {
+        List<TickStats> out = new ArrayList<>();
+        for (TickShard shard : shards) {
+            out.add(shard.getStats());
+        }
+        return out;
+    }
+
+    /**
+     * Human readable stats, one line per shard.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (TickShard shard : shards) {
+            sb.append("shard ").append(shard.getIndex())
+                .append(": worlds=").append(shard.entries().size())
+                .append(' ').append(shard.getStats())
+                .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+}
@@ -0,0 +1,197 @@
+package com.shootergame.game;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+
+/**
+ * Hands snapshots from the tick to a pool of encoder threads, which record
+ * them in the game's history and broadcast them. The tick only publishes the
+ * immutable snapshot and moves on, so encoding and fan-out cost the
+ * simulation nothing and spread over their own cores.
+ * Each game has a two-slot buffer: the snapshot being encoded and the next
+ * one. A newer snapshot replaces the next one if it is still waiting, so a
+ * slow stage skips snapshots instead of falling behind. Messages the tick
+ * broadcasts to the game (game_start, game_over) are never dropped and keep
+ * their order with the snapshots. One encoder at a time works on a game, so
+ * its history has a single writer.
+ * With no encoder threads, everything is done on the publishing thread.
+ */
+public class SnapshotPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotPublisher.class);
+
+    private final GameBroadcaster server;
+    private final int workers;
+    private final ExecutorService encoders;
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder encoded = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder encodeNs = new LongAdder();
+
+    /**
+     * @param workers encoder threads; 0 encodes on the publishing thread
+     */
+    public SnapshotPublisher(GameBroadcaster server, int workers) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("workers must not be negative");
+        }
+        this.server = server;
+        this.workers = workers;
+        if (workers == 0) {
+            this.encoders = null;
+        } else {
+            AtomicInteger next = new AtomicInteger();
+            this.encoders = Executors.newFixedThreadPool(workers, r -> {
+                Thread t = new Thread(r, "Snapshot-Encoder-" + next.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Queue a snapshot of a game for broadcast, replacing its unsent one.
+     * The snapshot is recorded in {@code history} when it is encoded, so only
+     * the encoder stage may use that history afterwards.
+     */
+    public void publish(String gameId, SnapshotHistory history, StateSnapshot state) {
+        published.increment();
+        offer(gameId, new Pending(history, state, null));
+    }
+
+    /**
+     * Queue a message for every client of a game, after the snapshots published before it.
+     */
+    public void publishMessage(String gameId, String message) {
+        offer(gameId, new Pending(null, null, message));
+    }
+
+    /**
+     * Forget a game that left this loop, returning once the work already
+     * queued for it has been sent, so none of it goes out after whatever the
+     * caller sends next. The game's tick must have stopped publishing.
+     */
+    public void remove(String gameId) throws InterruptedException {
+        Outbox outbox = outboxes.remove(gameId);
+        if (outbox == null) {
+            return;
+        }
+        synchronized (outbox) {
+            // Timed, so a pool shut down with this game's drain still pending cannot hold the caller
+            while (outbox.scheduled && !encoders.isShutdown()) {
+                outbox.wait(100);
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (encoders != null) {
+            encoders.shutdownNow();
+        }
+    }
+
+    private void offer(String gameId, Pending item) {
+        if (encoders == null) {
+            send(gameId, item);
+            return;
+        }
+        Outbox outbox = outboxes.computeIfAbsent(gameId, Outbox::new);
+        boolean wake = false;
+        synchronized (outbox) {
+            if (item.state() != null) {
+                for (Iterator<Pending> it = outbox.queue.iterator(); it.hasNext(); ) {
+                    if (it.next().state() != null) {
+                        it.remove();
+                        coalesced.increment();
+                    }
+                }
+            }
+            outbox.queue.add(item);
+            if (!outbox.scheduled) {
+                outbox.scheduled = true;
+                wake = true;
+            }
+        }
+        if (wake) {
+            try {
+                encoders.execute(() -> drain(outbox));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Snapshot encoders stopped, dropping output for game={}", gameId);
+            }
+        }
+    }
+
+    private void drain(Outbox outbox) {
+        while (true) {
+            Pending next;
+            synchronized (outbox) {
+                next = outbox.queue.poll();
+                if (next == null) {
+                    outbox.scheduled = false;
+                    outbox.notifyAll();
+                    return;
+                }
+            }
+            send(outbox.gameId, next);
+        }
+    }
+
+    private void send(String gameId, Pending item) {
+        try {
+            if (item.message() != null) {
+                server.broadcastToGame(gameId, item.message());
+                return;
+            }
+            long start = System.nanoTime();
+            long seq = item.history().record(item.state());
+            logger.debug("Broadcasting state seq={} for game={}", seq, gameId);
+            server.broadcastSnapshot(gameId, seq, item.state(), item.history());
+            encodeNs.add(System.nanoTime() - start);
+            encoded.increment();
+        } catch (Exception e) {
+            logger.error("Error broadcasting state for game=" + gameId, e);
+        }
+    }
+
+    public long getPublished() { return published.sum(); }
+    public long getEncoded() { return encoded.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+
+    @Override
+    public String toString() {
+        long count = encoded.sum();
+        return String.format("encoders=%d published=%d encoded=%d coalesced=%d avg encode=%.0fus",
+            workers, published.sum(), count, coalesced.sum(),
+            count == 0 ? 0.0 : encodeNs.sum() / 1_000.0 / count);
+    }
+
+    // A snapshot to record and broadcast, or a message to broadcast as is
+    private record Pending(SnapshotHistory history, StateSnapshot state, String message) {}
+
+    private static final class Outbox {
+        final String gameId;
+        // Guarded by this
+        final ArrayDeque<Pending> queue = new ArrayDeque<>();
+        // An encoder is draining this queue or has been asked to; waited on by remove
+        boolean scheduled;
+
+        Outbox(String gameId) {
+            this.gameId = gameId;
+        }
+    }
+}
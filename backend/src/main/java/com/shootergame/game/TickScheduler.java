@@ -20,10 +20,14 @@ public class TickScheduler {
     private final long tickIntervalMs;
 
     public TickScheduler(Runnable tickTask, long tickIntervalMs) {
+        this(tickTask, tickIntervalMs, "GameLoop-Tick");
+    }
+
+    public TickScheduler(Runnable tickTask, long tickIntervalMs, String threadName) {
         this.tickTask = tickTask;
         this.tickIntervalMs = tickIntervalMs;
         this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "GameLoop-Tick");
+            Thread t = new Thread(r, threadName);
             t.setDaemon(false);
             return t;
         });
@@ -36,6 +40,13 @@ public class TickScheduler {
         executor.scheduleAtFixedRate(tickTask, 0, tickIntervalMs, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Run a task on the tick thread between two ticks.
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
     public void stop() {
         logger.info("Stopping tick scheduler");
         executor.shutdownNow();
@@ -0,0 +1,119 @@
+package com.shootergame.game;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One tick worker: a dedicated thread that ticks its assigned worlds in order.
+ * A world is only ever owned by one shard, so its simulation stays single-threaded.
+ */
+class TickShard {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickShard.class);
+
+    /** A world assigned to this shard together with its measured tick cost. */
+    static class Entry {
+        final String gameId;
+        final WorldState world;
+        volatile double costNs = 0.0;
+
+        Entry(String gameId, WorldState world) {
+            this.gameId = gameId;
+            this.world = world;
+        }
+    }
+
+    private final int index;
+    private final ShardedTickEngine.WorldTicker ticker;
+    private final TickScheduler scheduler;
+    private final TickStats stats;
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    TickShard(int index, ShardedTickEngine.WorldTicker ticker, long tickIntervalMs) {
+        this.index = index;
+        this.ticker = ticker;
+        this.stats = new TickStats(TimeUnit.MILLISECONDS.toNanos(tickIntervalMs));
+        this.scheduler = new TickScheduler(this::tick, tickIntervalMs, "GameLoop-Tick-" + index);
+    }
+
+    void start() {
+        scheduler.start();
+    }
+
+    void stop() {
+        scheduler.stop();
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        for (Entry e : entries) {
+            long worldStart = System.nanoTime();
+            try {
+                ticker.tick(e.gameId, e.world, worldStart);
+            } catch (Exception ex) {
+                logger.error("Error ticking game=" + e.gameId, ex);
+            }
+            long cost = System.nanoTime() - worldStart;
+            e.costNs = e.costNs == 0.0 ? cost : e.costNs + 0.05 * (cost - e.costNs);
+        }
+        stats.record(System.nanoTime() - start);
+    }
+
+    void add(Entry e) {
+        entries.add(e);
+    }
+
+    /**
+     * Hand a world over to another shard. Runs on this shard's tick thread so
+     * the world is never ticked by both shards, and its order of ticks is kept.
+     */
+    void moveTo(Entry e, TickShard target) {
+        scheduler.execute(() -> {
+            if (entries.remove(e)) {
+                target.add(e);
+                logger.info("Moved game={} from tick shard {} to {}", e.gameId, index, target.index);
+            }
+        });
+    }
+
+    /**
+     * Take a world off this shard. Runs on the tick thread, so once this returns
+     * true the world is not mid-tick and will not be ticked here again.
+     */
+    boolean remove(String gameId) throws InterruptedException {
+        CompletableFuture<Boolean> removed = new CompletableFuture<>();
+        scheduler.execute(() -> removed.complete(entries.removeIf(e -> e.gameId.equals(gameId))));
+        try {
+            return removed.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Sum of the smoothed tick costs of the worlds on this shard. */
+    double load() {
+        double sum = 0.0;
+        for (Entry e : entries) {
+            sum += e.costNs;
+        }
+        return sum;
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    TickStats getStats() {
+        return stats;
+    }
+}
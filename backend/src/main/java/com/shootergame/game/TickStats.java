@@ -0,0 +1,51 @@
+package com.shootergame.game;
+
+/**
+ * Tick-duration statistics for one tick shard.
+ * Written only by the shard's tick thread; read by monitoring code.
+ */
+public class TickStats {
+
+    // Smoothing factor for the moving average (~ last 20 ticks)
+    private static final double EWMA_ALPHA = 0.05;
+
+    private final long budgetNs;
+    private volatile long ticks = 0L;
+    private volatile long overruns = 0L;
+    private volatile long totalNs = 0L;
+    private volatile long maxNs = 0L;
+    private volatile double ewmaNs = 0.0;
+
+    public TickStats(long budgetNs) {
+        this.budgetNs = budgetNs;
+    }
+
+    void record(long durationNs) {
+        ticks++;
+        totalNs += durationNs;
+        if (durationNs > maxNs) {
+            maxNs = durationNs;
+        }
+        if (durationNs > budgetNs) {
+            overruns++;
+        }
+        ewmaNs = ewmaNs == 0.0 ? durationNs : ewmaNs + EWMA_ALPHA * (durationNs - ewmaNs);
+    }
+
+    public long getTicks() { return ticks; }
+    public long getOverruns() { return overruns; }
+    public long getMaxNs() { return maxNs; }
+    public double getAverageNs() { return ticks == 0 ? 0.0 : (double) totalNs / ticks; }
+    public double getEwmaNs() { return ewmaNs; }
+
+    /** Fraction of the tick budget used by a recent tick, smoothed. */
+    public double getLoad() {
+        return ewmaNs / budgetNs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ticks=%d avg=%.3fms ewma=%.3fms max=%.3fms overruns=%d load=%.0f%%",
+            ticks, getAverageNs() / 1e6, ewmaNs / 1e6, maxNs / 1e6, overruns, getLoad() * 100);
+    }
+}
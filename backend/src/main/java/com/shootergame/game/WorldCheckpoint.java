@@ -0,0 +1,57 @@
+package com.shootergame.game;
+
+import java.util.List;
+
+import com.shootergame.game.entity.ProjectileStore;
+import com.shootergame.game.input.PlayerInput;
+
+/**
+ * Everything needed to resume a world in another process: players with their
+ * timers and held directions, projectiles with the id allocator, powerups, the
+ * match flags, the step count and random state, and inputs scheduled for later
+ * steps. Taken and restored only while the world is not ticking.
+ */
+public record WorldCheckpoint(
+    String mapId,
+    boolean matchRunning,
+    int nextPowerupId,
+    List<Player> players,
+    ProjectileStore.Image projectiles,
+    List<Powerup> powerups,
+    long step,
+    long randomState,
+    List<PlayerInput> scheduledInputs
+) {
+
+    public record Player(
+        int id,
+        String color,
+        double x,
+        double y,
+        int lives,
+        double invulnerableTime,
+        boolean up,
+        boolean down,
+        boolean left,
+        boolean right,
+        boolean fireRequested,
+        String fireFacing,
+        double shootCooldown,
+        boolean hasSpeedBoost,
+        double speedBoostTimer,
+        boolean hasNoCooldown,
+        double noCooldownTimer,
+        boolean hasSpreadShot,
+        double spreadShotTimer
+    ) {}
+
+    public record Powerup(
+        int id,
+        double x,
+        double y,
+        String type,
+        boolean active,
+        double respawnTimer,
+        double repositionTimer
+    ) {}
+}
@@ -1,56 +1,85 @@
 package com.shootergame.game;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
-import org.jspace.ActualField;
-import org.jspace.FormalField;
-import org.jspace.Space;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.shootergame.game.entity.PlayerState;
 import com.shootergame.game.entity.PowerupState;
-import com.shootergame.game.entity.ProjectileState;
+import com.shootergame.game.entity.ProjectileStore;
+import com.shootergame.game.input.MembershipEvent;
 import com.shootergame.game.input.PlayerInput;
 import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.MapRepository;
+import com.shootergame.game.map.SpatialGrid;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.space.GameSpace;
 import com.shootergame.util.TupleSpaces;
 
 /**
  * Holds the mutable state of the game world.
  * Manages players and projectiles.
+ * Single writer: only the tick thread that owns the world touches its state.
+ * Other threads hand it inputs and joins/leaves through the queues below,
+ * which the tick drains at its start. A world changes owner only while it is
+ * not ticking (construction, shard moves, migration), and those hand-offs
+ * are safe publications, so the state needs no locks or volatile fields.
  */
 public class WorldState {
 
     private static final Logger logger = LoggerFactory.getLogger(WorldState.class);
 
-    private final Space space;
     private final String gameId;
-    private final Map<Integer, PlayerState> players = new ConcurrentHashMap<>();
-    private final Map<Integer, ProjectileState> projectiles = new ConcurrentHashMap<>();
-    private final Map<Integer, PowerupState> powerups = new ConcurrentHashMap<>();
-    private volatile int nextProjectileId = 1;
-    private volatile int nextPowerupId = 1;
-    private volatile CollisionMap collisionMap;
-    private volatile String currentMapId;
+    private final Map<Integer, PlayerState> players = new HashMap<>();
+    private final ProjectileStore projectiles = new ProjectileStore();
+    private final Map<Integer, PowerupState> powerups = new HashMap<>();
+    private int nextPowerupId = 1;
+    private CollisionMap collisionMap;
+    private String currentMapId;
     // whether a match is currently running for this world
-    private volatile boolean matchRunning = false;
-    // Track player registration order to assign colors
-    private final java.util.List<Integer> playerRegistrationOrder = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private boolean matchRunning = false;
+    // Colors handed out on join; see pickColor
     private static final String[] PLAYER_COLORS = {"green", "red", "blue", "yellow"};
+    // Broadphase index of players, rebuilt when the map changes; tick thread only
+    private SpatialGrid<PlayerState> playerGrid;
+    private final List<PlayerState> nearbyScratch = new ArrayList<>();
+    // Inputs from network threads (many producers) wait in this world's own space until the tick drains them
+    private final GameSpace gameSpace;
+    // Joins and leaves from network threads, applied at the next tick boundary
+    private final Queue<MembershipEvent> membershipQueue = new ConcurrentLinkedQueue<>();
+    private static final int MAX_INPUTS_PER_TICK = 1024;
+    // Drained inputs waiting for the step they are for, in arrival order per step; tick thread only
+    private final TreeMap<Long, List<PlayerInput>> scheduledInputs = new TreeMap<>();
+    // Fixed-timestep clock: wall time accumulates and is simulated in whole steps
+    private long stepNs = TimeUnit.MILLISECONDS.toNanos(20);
+    private int maxStepsPerTick = 5;
+    private long snapshotIntervalNs = TimeUnit.MILLISECONDS.toNanos(50);
+    private long lastTickNs = 0L;
+    private long accumulatorNs = 0L;
+    private long lastBroadcastNs = 0L;
+    private long simulatedSteps = 0L;
+    private long droppedNs = 0L;
+    // SplitMix64 state, seeded from the game id so the same inputs always give
+    // the same world; a single long, so checkpoints carry it
+    private long randomState;
+    private final SnapshotHistory snapshotHistory = new SnapshotHistory();
 
-    private record MapSpec(String fileName, List<String> collisionLayers) {}
-    private static final Map<String, MapSpec> MAP_SPECS = Map.of(
-        "map2", new MapSpec("Map2.tmj", List.of("Walls", "Walls2", "Objects")),
-        "map3", new MapSpec("Map3.tmj", List.of("Walls", "Walls2", "Objects"))
-    );
-
-    public WorldState(Space space, String gameId) {
-        this.space = space;
+    public WorldState(String gameId) {
         this.gameId = gameId != null ? gameId : "default";
-        this.currentMapId = "map2";
-        this.collisionMap = loadCollisionMap(this.currentMapId);
+        this.gameSpace = TupleSpaces.newGameSpace();
+        this.randomState = this.gameId.hashCode();
+        this.currentMapId = MapRepository.DEFAULT_MAP;
+        this.collisionMap = MapRepository.get(this.currentMapId);
+        onMapChanged();
         initializePowerups();
     }
     
@@ -69,28 +98,95 @@ public class WorldState {
         logger.info("Initialized {} powerups at random positions", powerups.size());
     }
 
-    private CollisionMap loadCollisionMap(String mapId) {
-        try {
-            // Resolve repo root (backend runs with cwd=.../backend); climb one level if needed
-            java.nio.file.Path cwd = java.nio.file.Paths.get("").toAbsolutePath();
-            java.nio.file.Path repoRoot = cwd.getFileName().toString().equalsIgnoreCase("backend") ? cwd.getParent() : cwd;
-            String id = mapId != null && !mapId.isBlank() ? mapId : this.currentMapId;
-            MapSpec spec = MAP_SPECS.get(id);
-            if (spec == null) {
-                id = "map2";
-                spec = MAP_SPECS.get("map2");
-            }
-            this.currentMapId = id;
-            java.nio.file.Path mapPath = repoRoot
-                .resolve("frontend").resolve("public").resolve("assets").resolve("maps").resolve(spec.fileName());
-            return CollisionMap.fromTiled(mapPath, spec.collisionLayers());
-        } catch (Exception e) {
-            logger.warn("Failed to load collision map, defaulting to empty: {}", e.getMessage());
-            // Fallback: empty, default map size (70x60 @16px) so movement is not stuck
-            int w = 70, h = 60, t = 16;
-            boolean[][] empty = new boolean[h][w];
-            return new CollisionMap(w, h, t, t, empty);
+    private void onMapChanged() {
+        this.playerGrid = new SpatialGrid<>(collisionMap);
+        projectiles.setBounds(collisionMap.getPixelWidth(), collisionMap.getPixelHeight(), 10.0);
+        projectiles.setCollisionMap(collisionMap);
+    }
+
+    /**
+     * Set the simulation step and how many steps one tick may run to catch up.
+     * Time beyond that after a stall is dropped, so the world slows down
+     * rather than spiralling.
+     */
+    public void setTimestep(long stepNs, int maxStepsPerTick) {
+        if (stepNs <= 0 || maxStepsPerTick < 1) {
+            throw new IllegalArgumentException("step must be positive and at least one step allowed per tick");
         }
+        this.stepNs = stepNs;
+        this.maxStepsPerTick = maxStepsPerTick;
+    }
+
+    /**
+     * Set how often snapshots are broadcast, independent of the simulation step.
+     */
+    public void setSnapshotInterval(long intervalNs) {
+        this.snapshotIntervalNs = intervalNs;
+    }
+
+    /** The fixed simulation step in seconds; every update advances by exactly this. */
+    public double getStepSeconds() {
+        return stepNs / 1_000_000_000.0;
+    }
+
+    /**
+     * Record a tick at the given time and return how many fixed steps to simulate.
+     * The first tick runs one step; later ones run the whole steps of time that
+     * have built up, at most the catch-up limit.
+     */
+    public int stepsDue(long nowNs) {
+        if (lastTickNs == 0L) {
+            lastTickNs = nowNs;
+            simulatedSteps++;
+            return 1;
+        }
+        accumulatorNs += Math.max(0L, nowNs - lastTickNs);
+        lastTickNs = nowNs;
+        long steps = accumulatorNs / stepNs;
+        if (steps > maxStepsPerTick) {
+            long dropped = (steps - maxStepsPerTick) * stepNs;
+            droppedNs += dropped;
+            accumulatorNs -= dropped;
+            steps = maxStepsPerTick;
+        }
+        accumulatorNs -= steps * stepNs;
+        simulatedSteps += steps;
+        return (int) steps;
+    }
+
+    /**
+     * Restart the clock after the world was paused, so the paused time is not simulated.
+     */
+    public void resumeClock(long nowNs) {
+        lastTickNs = nowNs;
+        accumulatorNs = 0L;
+        lastBroadcastNs = 0L;
+    }
+
+    /** Steps simulated since the world was created; also the number of the last step. */
+    public long getSimulatedSteps() {
+        return simulatedSteps;
+    }
+
+    /** Wall time not simulated because a tick hit the catch-up limit. */
+    public long getDroppedNs() {
+        return droppedNs;
+    }
+
+    public boolean isBroadcastDue(long nowNs) {
+        return (nowNs - lastBroadcastNs) >= snapshotIntervalNs;
+    }
+
+    public void markBroadcast(long nowNs) {
+        lastBroadcastNs = nowNs;
+    }
+
+    /**
+     * Recently broadcast snapshots, the baselines for delta snapshots.
+     * Written by the snapshot encoder stage, not the tick; see {@link SnapshotPublisher}.
+     */
+    public SnapshotHistory getSnapshotHistory() {
+        return snapshotHistory;
     }
 
     public String getCurrentMapId() {
@@ -98,7 +194,57 @@ public class WorldState {
     }
 
     /**
-     * Apply a player input action to the world state.
+     * Queue an input to be applied before the step it is for, or the next
+     * step the world runs if it has none. Safe to call from any thread.
+     */
+    public void enqueueInput(PlayerInput input) {
+        try {
+            gameSpace.putInput(input);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("Interrupted while queueing input for game={}", gameId);
+        }
+    }
+
+    /**
+     * Hand all queued inputs to the consumer in arrival order.
+     * Bounded so a flood of inputs cannot stall the tick.
+     */
+    public int drainInputs(Consumer<PlayerInput> consumer) {
+        try {
+            return gameSpace.drainInputs(MAX_INPUTS_PER_TICK, consumer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * Drain queued inputs into the step schedule. Inputs without a step, or for
+     * a step already simulated, are scheduled for {@code nextStep}.
+     */
+    public int scheduleInputs(long nextStep) {
+        return drainInputs(input -> {
+            long step = Math.max(input.step(), nextStep);
+            scheduledInputs.computeIfAbsent(step, k -> new ArrayList<>()).add(input);
+        });
+    }
+
+    /**
+     * Hand the consumer every scheduled input for steps up to {@code step},
+     * by step and then in arrival order. Called before simulating that step.
+     */
+    public void applyScheduledInputs(long step, Consumer<PlayerInput> consumer) {
+        Map.Entry<Long, List<PlayerInput>> due;
+        while ((due = scheduledInputs.firstEntry()) != null && due.getKey() <= step) {
+            scheduledInputs.pollFirstEntry();
+            due.getValue().forEach(consumer);
+        }
+    }
+
+    /**
+     * Apply a player input action to the world state. Tick thread only;
+     * other threads use {@link #enqueueInput(PlayerInput)}.
      */
     public void applyInput(PlayerInput input) {
         int playerId = input.playerId();
@@ -108,14 +254,10 @@ public class WorldState {
         // Support a global START action to (re)start the match for this world.
         if ("START".equals(action)) {
             String requestedMap = payload != null && !payload.isBlank() ? payload : currentMapId;
-            try {
-                this.collisionMap = loadCollisionMap(requestedMap);
-                this.currentMapId = requestedMap;
-            } catch (Exception e) {
-                logger.warn("Falling back to existing map after failed load: {}", e.getMessage());
-            }
-            // Ensure registered players are present
-            syncRegisteredPlayers();
+            // Shared, preloaded instance; unknown ids fall back to the default map
+            this.currentMapId = MapRepository.resolve(requestedMap);
+            this.collisionMap = MapRepository.get(this.currentMapId);
+            onMapChanged();
             // clear projectiles
             projectiles.clear();
             // reset players: lives, invulnerability and spawn positions
@@ -182,51 +324,135 @@ public class WorldState {
     }
 
     /**
-     * Ensure all registered players are in the world state.
+     * Queue a join or leave. Called from network threads; applied by {@link #applyMembershipChanges()}.
      */
-    public void syncRegisteredPlayers() {
-        try {
-            List<Object[]> regs = TupleSpaces.queryAllPlayers(space, gameId);
-            java.util.Set<Integer> registered = new java.util.HashSet<>();
-            if (regs != null) {
-                for (Object[] r : regs) {
-                    if (r.length >= 2 && r[1] instanceof Number) {
-                        int pid = ((Number) r[1]).intValue();
-                        registered.add(pid);
-                        
-                        // Track registration order for color assignment
-                        if (!playerRegistrationOrder.contains(pid)) {
-                            playerRegistrationOrder.add(pid);
-                        }
-                        
-                        // Create player if not exists and assign color based on order
-                        PlayerState ps = players.computeIfAbsent(pid, PlayerState::new);
-                        int orderIndex = playerRegistrationOrder.indexOf(pid);
-                        ps.color = PLAYER_COLORS[orderIndex % PLAYER_COLORS.length];
-                    }
+    public void enqueueMembership(MembershipEvent event) {
+        membershipQueue.offer(event);
+    }
+
+    /**
+     * Apply queued joins and leaves. Called by the tick thread at the start of a tick,
+     * before inputs, so a player's first input always finds it present.
+     */
+    public void applyMembershipChanges() {
+        MembershipEvent event;
+        while ((event = membershipQueue.poll()) != null) {
+            int pid = event.playerId();
+            if (event.joined()) {
+                if (!players.containsKey(pid)) {
+                    PlayerState ps = new PlayerState(pid);
+                    ps.color = pickColor();
+                    players.put(pid, ps);
+                    logger.info("Player {} joined game={} as {}", pid, gameId, ps.color);
+                }
+            } else {
+                PlayerState ps = players.remove(pid);
+                if (ps != null) {
+                    playerGrid.remove(ps);
+                    logger.info("Player {} left game={}", pid, gameId);
                 }
             }
+        }
+    }
 
-            // Remove players that are no longer registered
-            players.keySet().removeIf(id -> {
-                if (!registered.contains(id)) {
-                    playerRegistrationOrder.remove(Integer.valueOf(id));
-                    return true;
-                }
-                return false;
-            });
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            logger.debug("Failed to query registered players", e);
+    // Least-used color, earliest in the palette on ties; a player keeps its color until it leaves
+    private String pickColor() {
+        int[] used = new int[PLAYER_COLORS.length];
+        for (PlayerState ps : players.values()) {
+            for (int i = 0; i < PLAYER_COLORS.length; i++) {
+                if (PLAYER_COLORS[i].equals(ps.color)) used[i]++;
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < used.length; i++) {
+            if (used[i] < used[best]) best = i;
+        }
+        return PLAYER_COLORS[best];
+    }
+
+    /**
+     * Capture the whole world for migration. The world must not be ticking.
+     */
+    public WorldCheckpoint checkpoint() {
+        List<WorldCheckpoint.Player> ps = new ArrayList<>();
+        for (PlayerState p : players.values()) {
+            ps.add(new WorldCheckpoint.Player(p.id, p.color, p.x, p.y, p.lives, p.invulnerableTime,
+                p.isUp(), p.isDown(), p.isLeft(), p.isRight(), p.fireRequested, p.fireFacing,
+                p.shootCooldown, p.hasSpeedBoost, p.speedBoostTimer, p.hasNoCooldown, p.noCooldownTimer,
+                p.hasSpreadShot, p.spreadShotTimer));
+        }
+        List<WorldCheckpoint.Powerup> pus = new ArrayList<>();
+        for (PowerupState p : powerups.values()) {
+            pus.add(new WorldCheckpoint.Powerup(p.id, p.x, p.y, p.type, p.active, p.respawnTimer, p.repositionTimer));
+        }
+        List<PlayerInput> scheduled = new ArrayList<>();
+        for (Map.Entry<Long, List<PlayerInput>> e : scheduledInputs.entrySet()) {
+            for (PlayerInput input : e.getValue()) {
+                scheduled.add(new PlayerInput(input.playerId(), input.action(), input.payload(), e.getKey()));
+            }
+        }
+        return new WorldCheckpoint(currentMapId, matchRunning, nextPowerupId, ps, projectiles.image(), pus,
+            simulatedSteps, randomState, scheduled);
+    }
+
+    /**
+     * Replace this world's contents with a checkpoint. The world must not be ticking;
+     * call {@link #resumeClock(long)} before ticking it again.
+     */
+    public void restore(WorldCheckpoint checkpoint) {
+        this.currentMapId = MapRepository.resolve(checkpoint.mapId());
+        this.collisionMap = MapRepository.get(this.currentMapId);
+        onMapChanged();
+        this.matchRunning = checkpoint.matchRunning();
+        this.nextPowerupId = checkpoint.nextPowerupId();
+        this.simulatedSteps = checkpoint.step();
+        this.randomState = checkpoint.randomState();
+        scheduledInputs.clear();
+        for (PlayerInput input : checkpoint.scheduledInputs()) {
+            scheduledInputs.computeIfAbsent(input.step(), k -> new ArrayList<>()).add(input);
+        }
+
+        players.clear();
+        for (WorldCheckpoint.Player c : checkpoint.players()) {
+            PlayerState p = new PlayerState(c.id());
+            p.color = c.color();
+            p.x = c.x();
+            p.y = c.y();
+            p.lives = c.lives();
+            p.invulnerableTime = c.invulnerableTime();
+            p.setDirections(c.up(), c.down(), c.left(), c.right());
+            p.fireRequested = c.fireRequested();
+            p.fireFacing = c.fireFacing();
+            p.shootCooldown = c.shootCooldown();
+            p.hasSpeedBoost = c.hasSpeedBoost();
+            p.speedBoostTimer = c.speedBoostTimer();
+            p.hasNoCooldown = c.hasNoCooldown();
+            p.noCooldownTimer = c.noCooldownTimer();
+            p.hasSpreadShot = c.hasSpreadShot();
+            p.spreadShotTimer = c.spreadShotTimer();
+            p.lastTs = System.currentTimeMillis();
+            players.put(p.id, p);
+        }
+
+        projectiles.restore(checkpoint.projectiles());
+
+        powerups.clear();
+        for (WorldCheckpoint.Powerup c : checkpoint.powerups()) {
+            PowerupState p = new PowerupState(c.id(), c.x(), c.y(), c.type());
+            p.active = c.active();
+            p.respawnTimer = c.respawnTimer();
+            p.repositionTimer = c.repositionTimer();
+            powerups.put(p.id, p);
         }
+        logger.info("Restored game={} with {} players and {} projectiles",
+            gameId, players.size(), projectiles.size());
     }
 
     public Map<Integer, PlayerState> getPlayers() {
         return players;
     }
 
-    public Map<Integer, ProjectileState> getProjectiles() {
+    public ProjectileStore getProjectiles() {
         return projectiles;
     }
     
@@ -238,25 +464,40 @@ public class WorldState {
         return collisionMap;
     }
 
-    public ProjectileState spawnProjectile(PlayerState owner, double vx, double vy) {
-        int projId = nextProjectileId++;
-        ProjectileState proj = new ProjectileState(projId, owner.x, owner.y, vx, vy, owner.id);
-        proj.setBounds(collisionMap.getPixelWidth(), collisionMap.getPixelHeight(), 10.0);
-        proj.setCollisionMap(collisionMap);
-        projectiles.put(projId, proj);
+    /**
+     * Fire a projectile from the owner's position and return its id.
+     */
+    public int spawnProjectile(PlayerState owner, double vx, double vy) {
+        int projId = projectiles.spawn(owner.id, owner.x, owner.y, vx, vy);
         logger.debug("Spawned projectile id={} owner={} vx={} vy={}", projId, owner.id, vx, vy);
-        return proj;
+        return projId;
     }
 
-    public void removeProjectile(int projId) {
-        projectiles.remove(projId);
+    /**
+     * Move players to their current broadphase cells. Call after players have moved.
+     */
+    public void updatePlayerGrid() {
+        for (PlayerState p : players.values()) {
+            playerGrid.update(p, p.x, p.y);
+        }
     }
-     /**
+
+    /**
+     * Players whose broadphase cells overlap a circle around (x, y).
+     * Returns a scratch list that is reused by the next call.
+     */
+    public List<PlayerState> nearbyPlayers(double x, double y, double radius) {
+        playerGrid.query(x, y, radius, nearbyScratch);
+        return nearbyScratch;
+    }
+
+    /**
      * Check for powerup collisions and apply effects.
      */
     public void checkPowerupCollisions() {
-        for (PlayerState player : players.values()) {
-            for (PowerupState powerup : powerups.values()) {
+        for (PowerupState powerup : powerups.values()) {
+            if (!powerup.isActive()) continue;
+            for (PlayerState player : nearbyPlayers(powerup.x, powerup.y, PowerupState.COLLISION_RADIUS)) {
                 if (powerup.checkCollision(player.x, player.y)) {
                     powerup.collect();
                     applyPowerupEffect(player, powerup);
@@ -297,15 +538,14 @@ public class WorldState {
      * Uses a simple random sampling approach with collision checking.
      */
     private double[] getRandomValidPosition() {
-        java.util.Random rand = new java.util.Random();
         double mapWidth = collisionMap.getPixelWidth();
         double mapHeight = collisionMap.getPixelHeight();
         double margin = 50.0; // Keep powerups away from edges
         double maxAttempts = 100;
         
         for (int attempt = 0; attempt < maxAttempts; attempt++) {
-            double x = margin + rand.nextDouble() * (mapWidth - 2 * margin);
-            double y = margin + rand.nextDouble() * (mapHeight - 2 * margin);
+            double x = margin + nextRandomDouble() * (mapWidth - 2 * margin);
+            double y = margin + nextRandomDouble() * (mapHeight - 2 * margin);
             
             // Check if position is valid (not blocked)
             if (!collisionMap.isBlocked(x, y)) {
@@ -318,6 +558,17 @@ public class WorldState {
         return new double[]{mapWidth / 2, mapHeight / 2};
     }
     
+    /**
+     * Uniform double in [0, 1) from SplitMix64.
+     */
+    private double nextRandomDouble() {
+        long z = (randomState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
     /**
      * Check if a player can shoot (cooldown check).
      */
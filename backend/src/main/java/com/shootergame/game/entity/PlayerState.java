@@ -169,8 +169,10 @@ public class PlayerState {
         nx = Math.max(margin, Math.min(mapWidth - margin, nx));
         ny = Math.max(margin, Math.min(mapHeight - margin, ny));
 
-        // Apply collision grid if provided
-        if (collisionMap != null) {
+        // Apply collision grid if provided. Far from walls one clearance lookup
+        // proves both probe points are free.
+        double step = Math.max(Math.abs(nx - x), Math.abs(ny - y));
+        if (collisionMap != null && collisionMap.clearance(x, y) <= step) {
             if (collisionMap.isBlocked(nx, y)) {
                 nx = x; // block X movement
             }
@@ -203,6 +205,16 @@ public class PlayerState {
         return lives > 0;
     }
 
+    /**
+     * Set all held directions at once, as when restoring a migrated player.
+     */
+    public void setDirections(boolean up, boolean down, boolean left, boolean right) {
+        this.up = up;
+        this.down = down;
+        this.left = left;
+        this.right = right;
+    }
+
     public boolean isUp() {
         return up;
     }
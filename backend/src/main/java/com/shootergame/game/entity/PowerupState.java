@@ -16,6 +16,7 @@ public class PowerupState {
     
     private static final double RESPAWN_TIME = 10.0; // 10 seconds
     private static final double REPOSITION_TIME = 15.0; // 15 seconds
+    public static final double COLLISION_RADIUS = 20.0;
 
     public PowerupState(int id, double x, double y, String type) {
         this.id = id;
@@ -78,7 +79,6 @@ public class PowerupState {
         if (!active) return false;
         double dx = x - px;
         double dy = y - py;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        return distance < 20.0; // Collision radius
+        return dx * dx + dy * dy < COLLISION_RADIUS * COLLISION_RADIUS;
     }
 }
@@ -0,0 +1,226 @@
+package com.shootergame.game.entity;
+
+import java.util.Arrays;
+
+import com.shootergame.game.map.CollisionMap;
+
+/**
+ * All projectiles of one world, stored as parallel primitive columns.
+ * Projectiles are addressed by slot index (0..size-1) while iterating; slots are
+ * compacted by swap-remove, so indices are only stable within one pass.
+ * Projectile ids are recycled through a FIFO free list, so at steady state
+ * spawning and removing projectiles allocates nothing.
+ * Not thread-safe; owned by the tick thread of a single world.
+ */
+public class ProjectileStore {
+
+    private static final double LIFETIME = 5.0; // seconds
+    // A freed id is only handed out again once this many ids are waiting,
+    // so clients never see an id reused while they may still render the old one
+    private static final int ID_REUSE_DELAY = 64;
+    private static final int INITIAL_CAPACITY = 32;
+
+    // Map bounds are provided by the collision map
+    private double mapWidth = 1120.0;
+    private double mapHeight = 960.0;
+    private double margin = 10.0; // allow projectiles a small grace beyond walls
+    private CollisionMap collisionMap;
+
+    private int size = 0;
+    private int[] id = new int[INITIAL_CAPACITY];
+    private int[] owner = new int[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] vx = new double[INITIAL_CAPACITY];
+    private double[] vy = new double[INITIAL_CAPACITY];
+    private double[] life = new double[INITIAL_CAPACITY];
+
+    // Ring buffer of released ids, oldest first
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeHead = 0;
+    private int freeCount = 0;
+    private int nextId = 1;
+
+    public void setBounds(double width, double height, double margin) {
+        this.mapWidth = width;
+        this.mapHeight = height;
+        this.margin = margin;
+    }
+
+    public void setCollisionMap(CollisionMap collisionMap) {
+        this.collisionMap = collisionMap;
+    }
+
+    /**
+     * Add a projectile and return its id.
+     */
+    public int spawn(int ownerId, double px, double py, double pvx, double pvy) {
+        if (size == id.length) {
+            grow();
+        }
+        int pid = acquireId();
+        int i = size++;
+        id[i] = pid;
+        owner[i] = ownerId;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        life[i] = LIFETIME;
+        return pid;
+    }
+
+    public int size() { return size; }
+    public int id(int i) { return id[i]; }
+    public int owner(int i) { return owner[i]; }
+    public double x(int i) { return x[i]; }
+    public double y(int i) { return y[i]; }
+    public double vx(int i) { return vx[i]; }
+    public double vy(int i) { return vy[i]; }
+    public double life(int i) { return life[i]; }
+
+    public boolean isAlive(int i) {
+        return life[i] > 0;
+    }
+
+    public void kill(int i) {
+        life[i] = 0;
+    }
+
+    public void setPosition(int i, double px, double py) {
+        x[i] = px;
+        y[i] = py;
+    }
+
+    public void setLife(int i, double seconds) {
+        life[i] = seconds;
+    }
+
+    public boolean isOutOfBounds(int i) {
+        return x[i] < margin || x[i] > mapWidth - margin || y[i] < margin || y[i] > mapHeight - margin;
+    }
+
+    /**
+     * Move every projectile; a projectile that touches a blocked tile dies in place.
+     */
+    public void update(double dt) {
+        for (int i = 0; i < size; i++) {
+            double nx = x[i] + vx[i] * dt;
+            double ny = y[i] + vy[i] * dt;
+
+            // Stop the projectile the moment it touches a blocked tile
+            if (collisionMap != null && collisionMap.raycast(x[i], y[i], nx, ny, null)) {
+                life[i] = 0;
+                continue;
+            }
+
+            x[i] = nx;
+            y[i] = ny;
+            life[i] -= dt;
+        }
+    }
+
+    /**
+     * Drop dead and out-of-bounds projectiles by moving the last slot into each hole.
+     */
+    public void removeDead() {
+        int i = 0;
+        while (i < size) {
+            if (isAlive(i) && !isOutOfBounds(i)) {
+                i++;
+                continue;
+            }
+            releaseId(id[i]);
+            int last = --size;
+            if (i != last) {
+                id[i] = id[last];
+                owner[i] = owner[last];
+                x[i] = x[last];
+                y[i] = y[last];
+                vx[i] = vx[last];
+                vy[i] = vy[last];
+                life[i] = life[last];
+            }
+        }
+    }
+
+    /**
+     * Every column plus the id allocator, in slot order.
+     */
+    public record Image(int[] ids, int[] owners, double[] xs, double[] ys,
+                        double[] vxs, double[] vys, double[] lives, int[] freeIds, int nextId) {}
+
+    public Image image() {
+        int[] free = new int[freeCount];
+        for (int k = 0; k < freeCount; k++) {
+            free[k] = freeIds[(freeHead + k) % freeIds.length];
+        }
+        return new Image(Arrays.copyOf(id, size), Arrays.copyOf(owner, size), Arrays.copyOf(x, size),
+            Arrays.copyOf(y, size), Arrays.copyOf(vx, size), Arrays.copyOf(vy, size),
+            Arrays.copyOf(life, size), free, nextId);
+    }
+
+    /**
+     * Replace every projectile and the id allocator with an image, so ids keep
+     * their meaning for clients.
+     */
+    public void restore(Image image) {
+        size = 0;
+        while (id.length < image.ids().length) {
+            grow();
+        }
+        size = image.ids().length;
+        System.arraycopy(image.ids(), 0, id, 0, size);
+        System.arraycopy(image.owners(), 0, owner, 0, size);
+        System.arraycopy(image.xs(), 0, x, 0, size);
+        System.arraycopy(image.ys(), 0, y, 0, size);
+        System.arraycopy(image.vxs(), 0, vx, 0, size);
+        System.arraycopy(image.vys(), 0, vy, 0, size);
+        System.arraycopy(image.lives(), 0, life, 0, size);
+        freeIds = Arrays.copyOf(image.freeIds(), Math.max(INITIAL_CAPACITY, image.freeIds().length));
+        freeHead = 0;
+        freeCount = image.freeIds().length;
+        nextId = image.nextId();
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            releaseId(id[i]);
+        }
+        size = 0;
+    }
+
+    private int acquireId() {
+        if (freeCount > ID_REUSE_DELAY) {
+            int pid = freeIds[freeHead];
+            freeHead = (freeHead + 1) % freeIds.length;
+            freeCount--;
+            return pid;
+        }
+        return nextId++;
+    }
+
+    private void releaseId(int pid) {
+        if (freeCount == freeIds.length) {
+            int[] grown = new int[freeIds.length * 2];
+            for (int k = 0; k < freeCount; k++) {
+                grown[k] = freeIds[(freeHead + k) % freeIds.length];
+            }
+            freeIds = grown;
+            freeHead = 0;
+        }
+        freeIds[(freeHead + freeCount) % freeIds.length] = pid;
+        freeCount++;
+    }
+
+    private void grow() {
+        int capacity = id.length * 2;
+        id = Arrays.copyOf(id, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        life = Arrays.copyOf(life, capacity);
+    }
+}
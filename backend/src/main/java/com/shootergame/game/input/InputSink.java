@@ -0,0 +1,10 @@
+package com.shootergame.game.input;
+
+/**
+ * Destination for player inputs coming off the network.
+ * Implemented by the game loop, which routes each input to its world's queue.
+ */
+@FunctionalInterface
+public interface InputSink {
+    void submit(String gameId, PlayerInput input);
+}
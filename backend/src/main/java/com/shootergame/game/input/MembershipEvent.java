@@ -0,0 +1,17 @@
+package com.shootergame.game.input;
+
+/**
+ * A player joining or leaving a game, applied by the world at its next tick.
+ */
+public record MembershipEvent(
+    int playerId,
+    boolean joined
+) {
+    public static MembershipEvent join(int playerId) {
+        return new MembershipEvent(playerId, true);
+    }
+
+    public static MembershipEvent leave(int playerId) {
+        return new MembershipEvent(playerId, false);
+    }
+}
@@ -0,0 +1,10 @@
+package com.shootergame.game.input;
+
+/**
+ * Destination for player joins and leaves detected by the network layer.
+ * Implemented by the game loop, which routes each event to its world's queue.
+ */
+@FunctionalInterface
+public interface MembershipSink {
+    void submit(String gameId, MembershipEvent event);
+}
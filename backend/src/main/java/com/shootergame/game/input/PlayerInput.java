@@ -2,10 +2,17 @@ package com.shootergame.game.input;
 
 /**
  * Tiny immutable value object representing a player's input action.
+ * {@code step} is the simulation step the input is for, counted from 1;
+ * 0 means the first step the world runs after the input arrives.
  */
 public record PlayerInput(
     int playerId,
     String action,
-    String payload
+    String payload,
+    long step
 ) {
+
+    public PlayerInput(int playerId, String action, String payload) {
+        this(playerId, action, payload, 0L);
+    }
 }
@@ -14,33 +14,262 @@ import com.google.gson.annotations.SerializedName;
 /**
  * Lightweight collision grid built from a Tiled JSON map. Marks tiles as blocked
  * for specified layers (e.g., Walls, Objects). Assumes orthogonal tile map.
+ * Blocked tiles are packed one bit per tile, row-major, into a long[].
  */
 public class CollisionMap {
+    // Clearance values are capped here; open areas further from walls report this
+    private static final int MAX_CLEARANCE_TILES = 4;
+
     private final int width;        // tiles
     private final int height;       // tiles
     private final int tileWidth;    // pixels
     private final int tileHeight;   // pixels
-    private final boolean[][] blocked; // [y][x]
+    private final int shiftX;       // log2(tileWidth), or -1 if not a power of two
+    private final int shiftY;       // log2(tileHeight), or -1 if not a power of two
+    private final long[] bits;      // bit (y * width + x) set when blocked
+    // Per-tile distance in pixels to the nearest blocked tile, built on first use
+    private volatile short[] clearance;
 
     public CollisionMap(int width, int height, int tileWidth, int tileHeight, boolean[][] blocked) {
+        this(width, height, tileWidth, tileHeight, pack(width, height, blocked));
+    }
+
+    public CollisionMap(int width, int height, int tileWidth, int tileHeight, long[] bits) {
+        if (bits.length < wordCount(width, height)) {
+            throw new IllegalArgumentException("Bitset too small for " + width + "x" + height + " tiles");
+        }
         this.width = width;
         this.height = height;
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
-        this.blocked = blocked;
+        this.shiftX = log2(tileWidth);
+        this.shiftY = log2(tileHeight);
+        this.bits = bits;
+    }
+
+    static int wordCount(int width, int height) {
+        return (width * height + 63) >>> 6;
+    }
+
+    /** The packed bits; shared, not copied, so callers must not modify them. */
+    long[] bits() {
+        return bits;
+    }
+
+    private static long[] pack(int width, int height, boolean[][] blocked) {
+        long[] bits = new long[wordCount(width, height)];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (blocked[y][x]) {
+                    int idx = y * width + x;
+                    bits[idx >>> 6] |= 1L << idx;
+                }
+            }
+        }
+        return bits;
+    }
+
+    private static int log2(int v) {
+        return v > 0 && (v & (v - 1)) == 0 ? Integer.numberOfTrailingZeros(v) : -1;
     }
 
     public int getPixelWidth() { return width * tileWidth; }
     public int getPixelHeight() { return height * tileHeight; }
+    public int getTileWidth() { return tileWidth; }
+    public int getTileHeight() { return tileHeight; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
 
     /** Returns true if a world pixel coordinate lies inside a blocked tile. */
     public boolean isBlocked(double x, double y) {
-        int tx = (int)Math.floor(x / tileWidth);
-        int ty = (int)Math.floor(y / tileHeight);
+        if (x < 0 || y < 0) {
+            return true; // outside map treated as blocked
+        }
+        // Non-negative, so truncation equals floor
+        int tx = shiftX >= 0 ? (int)x >> shiftX : (int)x / tileWidth;
+        int ty = shiftY >= 0 ? (int)y >> shiftY : (int)y / tileHeight;
+        return isTileBlocked(tx, ty);
+    }
+
+    /**
+     * Lower bound on the distance in pixels from (x, y) to the nearest blocked tile,
+     * capped at a few tiles. Zero inside or next to a blocked tile.
+     */
+    public double clearance(double x, double y) {
+        if (x < 0 || y < 0) {
+            return 0.0;
+        }
+        int tx = shiftX >= 0 ? (int)x >> shiftX : (int)x / tileWidth;
+        int ty = shiftY >= 0 ? (int)y >> shiftY : (int)y / tileHeight;
+        if (tx >= width || ty >= height) {
+            return 0.0;
+        }
+        return clearanceField()[ty * width + tx];
+    }
+
+    /**
+     * True if a circle overlaps a blocked tile. Answered by a single clearance
+     * lookup away from walls; only circles near a wall test individual tiles.
+     */
+    public boolean isCircleBlocked(double x, double y, double radius) {
+        if (clearance(x, y) >= radius) {
+            return false;
+        }
+        int minX = (int)Math.floor((x - radius) / tileWidth);
+        int maxX = (int)Math.floor((x + radius) / tileWidth);
+        int minY = (int)Math.floor((y - radius) / tileHeight);
+        int maxY = (int)Math.floor((y + radius) / tileHeight);
+        double r2 = radius * radius;
+        for (int ty = minY; ty <= maxY; ty++) {
+            for (int tx = minX; tx <= maxX; tx++) {
+                if (!isTileBlocked(tx, ty)) continue;
+                // Closest point of the tile to the circle centre
+                double cx = Math.max(tx * (double) tileWidth, Math.min(x, (tx + 1) * (double) tileWidth));
+                double cy = Math.max(ty * (double) tileHeight, Math.min(y, (ty + 1) * (double) tileHeight));
+                double dx = x - cx;
+                double dy = y - cy;
+                if (dx * dx + dy * dy < r2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private short[] clearanceField() {
+        short[] field = clearance;
+        if (field == null) {
+            synchronized (this) {
+                field = clearance;
+                if (field == null) {
+                    field = buildClearance();
+                    clearance = field;
+                }
+            }
+        }
+        return field;
+    }
+
+    /**
+     * For each tile, the smallest gap between it and any blocked tile (or the map edge)
+     * within {@link #MAX_CLEARANCE_TILES}; the gap is measured rectangle to rectangle,
+     * so it holds for every point inside the tile.
+     */
+    private short[] buildClearance() {
+        int r = MAX_CLEARANCE_TILES;
+        short cap = (short) Math.floor(r * (double) Math.min(tileWidth, tileHeight));
+        short[] field = new short[width * height];
+        for (int ty = 0; ty < height; ty++) {
+            for (int tx = 0; tx < width; tx++) {
+                double best = cap;
+                for (int oy = -r; oy <= r; oy++) {
+                    for (int ox = -r; ox <= r; ox++) {
+                        if (!isTileBlocked(tx + ox, ty + oy)) continue;
+                        double gapX = Math.max(0, Math.abs(ox) - 1) * (double) tileWidth;
+                        double gapY = Math.max(0, Math.abs(oy) - 1) * (double) tileHeight;
+                        best = Math.min(best, Math.hypot(gapX, gapY));
+                    }
+                }
+                field[ty * width + tx] = (short) Math.floor(best);
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Build the clearance field now instead of on first use.
+     */
+    void precompute() {
+        clearanceField();
+    }
+
+    /** Approximate heap footprint of the collision data in bytes, including the clearance field once built. */
+    public long footprintBytes() {
+        short[] field = clearance;
+        return 16L + 8L * bits.length + (field == null ? 0L : 16L + 2L * field.length);
+    }
+
+    /** Mutable result of {@link #raycast}; reuse one instance per caller to avoid allocation. */
+    public static final class RayHit {
+        public int tileX;
+        public int tileY;
+        public double x;
+        public double y;
+        public double t; // fraction of the segment, 0..1
+    }
+
+    /**
+     * Walk the tiles crossed by the segment (sx, sy) -> (ex, ey) in order (Amanatides-Woo)
+     * and report the first blocked one. Each crossed tile is visited exactly once.
+     * Tiles outside the map count as blocked, as in {@link #isBlocked}.
+     *
+     * @param hit optional holder for the blocked tile and the point where the segment enters it
+     * @return true if the segment touches a blocked tile
+     */
+    public boolean raycast(double sx, double sy, double ex, double ey, RayHit hit) {
+        int tx = (int)Math.floor(sx / tileWidth);
+        int ty = (int)Math.floor(sy / tileHeight);
+        int endX = (int)Math.floor(ex / tileWidth);
+        int endY = (int)Math.floor(ey / tileHeight);
+        double dx = ex - sx;
+        double dy = ey - sy;
+
+        int stepX = endX > tx ? 1 : -1;
+        int stepY = endY > ty ? 1 : -1;
+        int remainingX = Math.abs(endX - tx);
+        int remainingY = Math.abs(endY - ty);
+        // Segment fraction at which the next vertical / horizontal tile edge is crossed
+        double tMaxX = Double.POSITIVE_INFINITY;
+        double tMaxY = Double.POSITIVE_INFINITY;
+        double tDeltaX = Double.POSITIVE_INFINITY;
+        double tDeltaY = Double.POSITIVE_INFINITY;
+        if (remainingX > 0) {
+            double edge = (stepX > 0 ? tx + 1 : tx) * (double) tileWidth;
+            tMaxX = (edge - sx) / dx;
+            tDeltaX = tileWidth / Math.abs(dx);
+        }
+        if (remainingY > 0) {
+            double edge = (stepY > 0 ? ty + 1 : ty) * (double) tileHeight;
+            tMaxY = (edge - sy) / dy;
+            tDeltaY = tileHeight / Math.abs(dy);
+        }
+
+        double t = 0.0;
+        while (true) {
+            if (isTileBlocked(tx, ty)) {
+                if (hit != null) {
+                    double clamped = Math.max(0.0, Math.min(1.0, t));
+                    hit.tileX = tx;
+                    hit.tileY = ty;
+                    hit.t = clamped;
+                    hit.x = sx + dx * clamped;
+                    hit.y = sy + dy * clamped;
+                }
+                return true;
+            }
+            if (remainingX == 0 && remainingY == 0) {
+                return false;
+            }
+            if (remainingY == 0 || (remainingX > 0 && tMaxX <= tMaxY)) {
+                tx += stepX;
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                remainingX--;
+            } else {
+                ty += stepY;
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                remainingY--;
+            }
+        }
+    }
+
+    private boolean isTileBlocked(int tx, int ty) {
         if (tx < 0 || ty < 0 || tx >= width || ty >= height) {
             return true; // outside map treated as blocked
         }
-        return blocked[ty][tx];
+        int idx = ty * width + tx;
+        return (bits[idx >>> 6] & (1L << idx)) != 0;
     }
 
     /** Load a collision map from a Tiled JSON (.tmj) file for the given layer names. */
@@ -52,7 +281,7 @@ public class CollisionMap {
             Gson gson = new Gson();
             TiledMap map = gson.fromJson(r, TiledMap.class);
             Set<String> wanted = new HashSet<>(collidableLayerNames);
-            boolean[][] blocked = new boolean[map.height][map.width];
+            long[] bits = new long[wordCount(map.width, map.height)];
             for (Layer layer : map.layers) {
                 if (!wanted.contains(layer.name)) continue;
                 if (layer.data == null) continue;
@@ -62,11 +291,12 @@ public class CollisionMap {
                     int x = idx % layer.width;
                     int y = idx / layer.width;
                     if (y >= 0 && y < map.height && x >= 0 && x < map.width) {
-                        blocked[y][x] = true;
+                        int bit = y * map.width + x;
+                        bits[bit >>> 6] |= 1L << bit;
                     }
                 }
             }
-            return new CollisionMap(map.width, map.height, map.tilewidth, map.tileheight, blocked);
+            return new CollisionMap(map.width, map.height, map.tilewidth, map.tileheight, bits);
         }
     }
 
@@ -0,0 +1,101 @@
+package com.shootergame.game.map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Precompiled collision map format, so worlds can skip parsing Tiled JSON.
+ * Little-endian: a 32-byte header (magic, version, source stamp, width, height,
+ * tile width, tile height) followed by the packed blocked bits as longs, exactly
+ * as {@link CollisionMap} stores them. The source stamp identifies the .tmj file
+ * and layer list the bits were built from, so stale files are detected.
+ */
+public final class CollisionMapFile {
+
+    public static final String EXTENSION = ".cmap";
+
+    private static final int MAGIC = 0x50414D43; // "CMAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private CollisionMapFile() {}
+
+    /**
+     * Fingerprint of a source map file and the layers compiled from it.
+     */
+    public static long sourceStamp(Path source, List<String> collisionLayers) throws IOException {
+        long h = Files.size(source);
+        h = h * 31 + Files.getLastModifiedTime(source).toMillis();
+        h = h * 31 + collisionLayers.hashCode();
+        return h;
+    }
+
+    /**
+     * Write a map, replacing any existing file atomically.
+     */
+    public static void write(CollisionMap map, long sourceStamp, Path out) throws IOException {
+        long[] bits = map.bits();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + 8 * bits.length).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(sourceStamp)
+            .putInt(map.getWidth())
+            .putInt(map.getHeight())
+            .putInt(map.getTileWidth())
+            .putInt(map.getTileHeight());
+        buf.asLongBuffer().put(bits);
+        buf.position(0);
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a file read-only and copy its bits into a new map. Returns null if the
+     * file was built from a different source or by a different format version.
+     */
+    public static CollisionMap read(Path file, long expectedStamp) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Truncated collision map file: " + file);
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a collision map file: " + file);
+            }
+            if (buf.getInt() != VERSION || buf.getLong() != expectedStamp) {
+                return null;
+            }
+            int width = buf.getInt();
+            int height = buf.getInt();
+            int tileWidth = buf.getInt();
+            int tileHeight = buf.getInt();
+            if (width <= 0 || height <= 0 || tileWidth <= 0 || tileHeight <= 0) {
+                throw new IOException("Invalid dimensions in " + file);
+            }
+            long[] bits = new long[CollisionMap.wordCount(width, height)];
+            if (buf.remaining() < 8L * bits.length) {
+                throw new IOException("Truncated collision map file: " + file);
+            }
+            buf.asLongBuffer().get(bits);
+            return new CollisionMap(width, height, tileWidth, tileHeight, bits);
+        }
+    }
+}
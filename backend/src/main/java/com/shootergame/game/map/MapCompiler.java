@@ -0,0 +1,26 @@
+package com.shootergame.game.map;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build step that compiles every known Tiled map into the binary collision
+ * format. Run by Maven in process-classes with the output directory as argument.
+ */
+public final class MapCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapCompiler.class);
+
+    private MapCompiler() {}
+
+    public static void main(String[] args) throws Exception {
+        // Runs inside the Maven JVM, so fail by throwing rather than System.exit
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: MapCompiler <output-dir>");
+        }
+        int compiled = MapRepository.compileAll(Path.of(args[0]));
+        logger.info("Compiled {} collision maps into {}", compiled, args[0]);
+    }
+}
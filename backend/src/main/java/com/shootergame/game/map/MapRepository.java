@@ -0,0 +1,167 @@
+package com.shootergame.game.map;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide collision maps keyed by map id. Every map is loaded once (normally
+ * by {@link #preload()} at startup) and the same instance is handed to every world,
+ * so switching maps never touches the disk. Maps are never modified after loading.
+ * Maps come from the binary files compiled at build time when they are present and
+ * current, otherwise from the Tiled JSON. Searches parent directories for both,
+ * like {@code SharedConfig}.
+ */
+public final class MapRepository {
+    private static final Logger logger = LoggerFactory.getLogger(MapRepository.class);
+    private static final String REL_PATH = "frontend/public/assets/maps";
+    // Written by MapCompiler during the backend build
+    private static final String BINARY_REL_PATH = "backend/target/maps";
+
+    public static final String DEFAULT_MAP = "map2";
+
+    private record MapSpec(String fileName, List<String> collisionLayers) {}
+    private static final Map<String, MapSpec> MAP_SPECS = Map.of(
+        "map2", new MapSpec("Map2.tmj", List.of("Walls", "Walls2", "Objects")),
+        "map3", new MapSpec("Map3.tmj", List.of("Walls", "Walls2", "Objects"))
+    );
+
+    // Used when a map file cannot be loaded: empty, default size (70x60 @16px) so movement is not stuck
+    private static final CollisionMap EMPTY = new CollisionMap(70, 60, 16, 16, new long[(70 * 60 + 63) / 64]);
+
+    private static final Map<String, CollisionMap> maps = new ConcurrentHashMap<>();
+    private static final Map<String, Long> loadNanos = new ConcurrentHashMap<>();
+    private static final Map<String, String> loadedFrom = new ConcurrentHashMap<>();
+
+    private MapRepository() {}
+
+    /**
+     * Load every known map. Call once at startup, before any world is created.
+     */
+    public static void preload() {
+        long start = System.nanoTime();
+        for (String id : MAP_SPECS.keySet()) {
+            get(id);
+        }
+        logger.info("Preloaded {} maps in {} ms, {} bytes{}{}", maps.size(),
+            (System.nanoTime() - start) / 1_000_000, footprintBytes(), System.lineSeparator(), describe());
+    }
+
+    /**
+     * The id itself if it names a known map, otherwise the default map.
+     */
+    public static String resolve(String mapId) {
+        return mapId != null && MAP_SPECS.containsKey(mapId) ? mapId : DEFAULT_MAP;
+    }
+
+    /**
+     * The shared collision map for an id (unknown ids get the default map).
+     * Loads it on first use if {@link #preload()} has not run.
+     */
+    public static CollisionMap get(String mapId) {
+        return maps.computeIfAbsent(resolve(mapId), MapRepository::load);
+    }
+
+    /** Total heap held by the loaded maps, including their derived lookup tables. */
+    public static long footprintBytes() {
+        long total = 0L;
+        for (CollisionMap map : maps.values()) {
+            total += map.footprintBytes();
+        }
+        return total;
+    }
+
+    /**
+     * One line per loaded map with its size, load time and memory.
+     */
+    public static String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, CollisionMap> e : maps.entrySet()) {
+            CollisionMap map = e.getValue();
+            if (sb.length() > 0) sb.append(System.lineSeparator());
+            sb.append(String.format("  %s: %dx%d tiles, loaded from %s in %.1f ms, %d bytes",
+                e.getKey(), map.getWidth(), map.getHeight(), loadedFrom.getOrDefault(e.getKey(), "fallback"),
+                loadNanos.getOrDefault(e.getKey(), 0L) / 1_000_000.0, map.footprintBytes()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compile every known map into {@code outDir}; returns the number written.
+     */
+    static int compileAll(Path outDir) throws Exception {
+        Path dir = findDir(REL_PATH).orElseThrow(() -> new IllegalStateException(REL_PATH + " not found"));
+        int written = 0;
+        for (Map.Entry<String, MapSpec> e : MAP_SPECS.entrySet()) {
+            MapSpec spec = e.getValue();
+            Path source = dir.resolve(spec.fileName());
+            CollisionMap map = CollisionMap.fromTiled(source, spec.collisionLayers());
+            CollisionMapFile.write(map, CollisionMapFile.sourceStamp(source, spec.collisionLayers()),
+                outDir.resolve(e.getKey() + CollisionMapFile.EXTENSION));
+            written++;
+        }
+        return written;
+    }
+
+    private static CollisionMap load(String mapId) {
+        MapSpec spec = MAP_SPECS.get(mapId);
+        long start = System.nanoTime();
+        try {
+            Path source = findDir(REL_PATH)
+                .orElseThrow(() -> new IllegalStateException(REL_PATH + " not found"))
+                .resolve(spec.fileName());
+            CollisionMap map = loadBinary(mapId, source, spec);
+            String from = "binary";
+            if (map == null) {
+                map = CollisionMap.fromTiled(source, spec.collisionLayers());
+                from = "json";
+            }
+            // Build derived tables now so the shared instance is never written to afterwards
+            map.precompute();
+            loadNanos.put(mapId, System.nanoTime() - start);
+            loadedFrom.put(mapId, from);
+            return map;
+        } catch (Exception e) {
+            logger.warn("Failed to load collision map {}, defaulting to empty: {}", mapId, e.getMessage());
+            EMPTY.precompute();
+            return EMPTY;
+        }
+    }
+
+    // The compiled map if it exists and was built from the current source, else null
+    private static CollisionMap loadBinary(String mapId, Path source, MapSpec spec) {
+        Optional<Path> dir = findDir(BINARY_REL_PATH);
+        if (dir.isEmpty() || !Files.exists(dir.get().resolve(mapId + CollisionMapFile.EXTENSION))) {
+            logger.debug("No compiled collision map for {}, parsing {}", mapId, spec.fileName());
+            return null;
+        }
+        Path file = dir.get().resolve(mapId + CollisionMapFile.EXTENSION);
+        try {
+            CollisionMap map = CollisionMapFile.read(file, CollisionMapFile.sourceStamp(source, spec.collisionLayers()));
+            if (map == null) {
+                logger.info("Compiled collision map {} is stale, parsing {}", file, spec.fileName());
+            }
+            return map;
+        } catch (Exception e) {
+            logger.warn("Unreadable compiled collision map {}, parsing {}: {}", file, spec.fileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static Optional<Path> findDir(String relPath) {
+        Path cwd = Path.of("").toAbsolutePath();
+        for (int i = 0; i < 5; i++) {
+            Path candidate = cwd.resolve(relPath);
+            if (Files.isDirectory(candidate)) return Optional.of(candidate);
+            cwd = cwd.getParent();
+            if (cwd == null) break;
+        }
+        return Optional.empty();
+    }
+}
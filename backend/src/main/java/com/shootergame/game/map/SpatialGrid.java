@@ -0,0 +1,105 @@
+package com.shootergame.game.map;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform-grid broadphase over world pixel space. Cells are a whole number of
+ * collision-map tiles. Items are moved between cells only when they cross a cell
+ * boundary, so keeping the grid current each tick is cheap.
+ * Not thread-safe; owned by the tick thread of a single world.
+ */
+public class SpatialGrid<T> {
+
+    // Target cell edge in pixels; rounded to whole tiles
+    private static final int TARGET_CELL_PX = 64;
+
+    private final int cellWidth;
+    private final int cellHeight;
+    private final int cols;
+    private final int rows;
+    private final List<T>[] cells;
+    private final Map<T, Integer> cellOf = new IdentityHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public SpatialGrid(CollisionMap map) {
+        int tilesX = Math.max(1, (TARGET_CELL_PX + map.getTileWidth() - 1) / map.getTileWidth());
+        int tilesY = Math.max(1, (TARGET_CELL_PX + map.getTileHeight() - 1) / map.getTileHeight());
+        this.cellWidth = tilesX * map.getTileWidth();
+        this.cellHeight = tilesY * map.getTileHeight();
+        this.cols = Math.max(1, (map.getPixelWidth() + cellWidth - 1) / cellWidth);
+        this.rows = Math.max(1, (map.getPixelHeight() + cellHeight - 1) / cellHeight);
+        this.cells = new List[cols * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new ArrayList<>(4);
+        }
+    }
+
+    /**
+     * Insert an item or move it to the cell containing (x, y).
+     */
+    public void update(T item, double x, double y) {
+        int cell = cellIndex(x, y);
+        Integer current = cellOf.get(item);
+        if (current != null) {
+            if (current == cell) return;
+            cells[current].remove(item);
+        }
+        cells[cell].add(item);
+        cellOf.put(item, cell);
+    }
+
+    public void remove(T item) {
+        Integer current = cellOf.remove(item);
+        if (current != null) {
+            cells[current].remove(item);
+        }
+    }
+
+    public void clear() {
+        for (List<T> cell : cells) {
+            cell.clear();
+        }
+        cellOf.clear();
+    }
+
+    public int size() {
+        return cellOf.size();
+    }
+
+    /**
+     * Collect every item in the cells overlapping the square of half-size
+     * {@code radius} around (x, y). Candidates still need a narrowphase check.
+     */
+    public void query(double x, double y, double radius, List<T> out) {
+        out.clear();
+        int minCol = clampCol((int) Math.floor((x - radius) / cellWidth));
+        int maxCol = clampCol((int) Math.floor((x + radius) / cellWidth));
+        int minRow = clampRow((int) Math.floor((y - radius) / cellHeight));
+        int maxRow = clampRow((int) Math.floor((y + radius) / cellHeight));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                List<T> cell = cells[row * cols + col];
+                for (int i = 0; i < cell.size(); i++) {
+                    out.add(cell.get(i));
+                }
+            }
+        }
+    }
+
+    private int cellIndex(double x, double y) {
+        int col = clampCol((int) Math.floor(x / cellWidth));
+        int row = clampRow((int) Math.floor(y / cellHeight));
+        return row * cols + col;
+    }
+
+    private int clampCol(int col) {
+        return col < 0 ? 0 : (col >= cols ? cols - 1 : col);
+    }
+
+    private int clampRow(int row) {
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+}
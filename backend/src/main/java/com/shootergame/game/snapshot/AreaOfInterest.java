@@ -0,0 +1,97 @@
+package com.shootergame.game.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * What one client is sent of its world: the entities around its player.
+ * An entity comes into view within the index radius of the player and leaves
+ * only once it is past the grace band, so entities hovering at the edge do not
+ * flicker in and out. While the player is dead the view stays where it died;
+ * a client whose player has never been seen gets the whole world.
+ * The filtered snapshots are kept by sequence number, since they, not the
+ * world's snapshots, are what this client's delta acknowledgements refer to.
+ * Not thread-safe; used by the thread broadcasting the client's game.
+ */
+public class AreaOfInterest {
+
+    private final SnapshotHistory sent = new SnapshotHistory();
+    private boolean hasCenter = false;
+    private double centerX;
+    private double centerY;
+    // Ids in view after the last snapshot, and the set being built for the next
+    private Set<Integer> players = new HashSet<>();
+    private Set<Integer> projectiles = new HashSet<>();
+    private Set<Integer> powerups = new HashSet<>();
+    private Set<Integer> next = new HashSet<>();
+    private final List<PlayerView> playerScratch = new ArrayList<>();
+    private final List<ProjectileView> projectileScratch = new ArrayList<>();
+    private final List<PowerupView> powerupScratch = new ArrayList<>();
+
+    /**
+     * The part of snapshot {@code seq} this client should see, as indexed by
+     * {@code index}. The result is remembered as what the client was sent.
+     */
+    public StateSnapshot filter(long seq, StateSnapshot state, InterestIndex index, int playerId) {
+        PlayerView self = index.player(playerId);
+        if (self != null) {
+            hasCenter = true;
+            centerX = self.x();
+            centerY = self.y();
+        }
+        StateSnapshot view;
+        if (!hasCenter) {
+            view = state;
+        } else {
+            double r = index.radius();
+            double outer = r + index.grace();
+            index.playersNear(centerX, centerY, playerScratch);
+            List<PlayerView> ps = new ArrayList<>();
+            players = select(playerScratch, PlayerView::id, PlayerView::x, PlayerView::y, r, outer, players, ps);
+            index.projectilesNear(centerX, centerY, projectileScratch);
+            List<ProjectileView> prs = new ArrayList<>();
+            projectiles = select(projectileScratch, ProjectileView::id, ProjectileView::x, ProjectileView::y,
+                r, outer, projectiles, prs);
+            index.powerupsNear(centerX, centerY, powerupScratch);
+            List<PowerupView> pus = new ArrayList<>();
+            powerups = select(powerupScratch, PowerupView::id, PowerupView::x, PowerupView::y, r, outer, powerups, pus);
+            view = new StateSnapshot(StateSnapshot.TYPE, ps, prs, pus, state.map(), state.running());
+        }
+        sent.put(seq, view);
+        return view;
+    }
+
+    /**
+     * What this client was sent as snapshot {@code seq}, or null if that is no longer kept.
+     */
+    public StateSnapshot sent(long seq) {
+        return sent.get(seq);
+    }
+
+    /**
+     * Add the candidates in view to {@code out} and return their ids; the
+     * previous id set is recycled for the next call.
+     */
+    private <V> Set<Integer> select(List<V> candidates, ToIntFunction<V> id, ToDoubleFunction<V> x,
+                                    ToDoubleFunction<V> y, double r, double outer,
+                                    Set<Integer> visible, List<V> out) {
+        Set<Integer> inView = next;
+        inView.clear();
+        for (int i = 0; i < candidates.size(); i++) {
+            V v = candidates.get(i);
+            // Square view, like the broadphase query
+            double d = Math.max(Math.abs(x.applyAsDouble(v) - centerX), Math.abs(y.applyAsDouble(v) - centerY));
+            int key = id.applyAsInt(v);
+            if (d <= r || (d <= outer && visible.contains(key))) {
+                out.add(v);
+                inView.add(key);
+            }
+        }
+        next = visible;
+        return inView;
+    }
+}
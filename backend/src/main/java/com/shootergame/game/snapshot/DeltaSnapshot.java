@@ -0,0 +1,77 @@
+package com.shootergame.game.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * The "state_delta" message sent to clients that opted into delta snapshots.
+ * Lists entities added or changed since the baseline snapshot the client acknowledged,
+ * and the ids of entities removed since then. A baseline of 0 means the message
+ * is a full snapshot. Clients keep the snapshots they received by seq, apply the
+ * delta to the baseline one, and acknowledge seq with an "ack" message.
+ */
+public record DeltaSnapshot(
+    String type,
+    long seq,
+    long baseline,
+    List<PlayerView> players,
+    List<Integer> removedPlayers,
+    List<ProjectileView> projectiles,
+    List<Integer> removedProjectiles,
+    List<PowerupView> powerups,
+    List<Integer> removedPowerups,
+    String map,
+    boolean running
+) {
+    public static final String TYPE = "state_delta";
+
+    /**
+     * Every entity of the snapshot, for clients without a usable baseline.
+     */
+    public static DeltaSnapshot full(long seq, StateSnapshot current) {
+        return new DeltaSnapshot(TYPE, seq, 0L,
+            current.players(), List.of(),
+            current.projectiles(), List.of(),
+            current.powerups(), List.of(),
+            current.map(), current.running());
+    }
+
+    /**
+     * Changes from {@code base} (sequence {@code baseSeq}) to {@code current}.
+     */
+    public static DeltaSnapshot between(long baseSeq, StateSnapshot base, long seq, StateSnapshot current) {
+        List<PlayerView> players = new ArrayList<>();
+        List<Integer> removedPlayers = new ArrayList<>();
+        diff(base.players(), current.players(), PlayerView::id, players, removedPlayers);
+        List<ProjectileView> projectiles = new ArrayList<>();
+        List<Integer> removedProjectiles = new ArrayList<>();
+        diff(base.projectiles(), current.projectiles(), ProjectileView::id, projectiles, removedProjectiles);
+        List<PowerupView> powerups = new ArrayList<>();
+        List<Integer> removedPowerups = new ArrayList<>();
+        diff(base.powerups(), current.powerups(), PowerupView::id, powerups, removedPowerups);
+        return new DeltaSnapshot(TYPE, seq, baseSeq,
+            players, removedPlayers,
+            projectiles, removedProjectiles,
+            powerups, removedPowerups,
+            current.map(), current.running());
+    }
+
+    // Views are records, so equals() compares every wire field
+    private static <V> void diff(List<V> base, List<V> current, ToIntFunction<V> id,
+                                 List<V> changed, List<Integer> removed) {
+        Map<Integer, V> before = new HashMap<>();
+        for (V v : base) {
+            before.put(id.applyAsInt(v), v);
+        }
+        for (V v : current) {
+            V old = before.remove(id.applyAsInt(v));
+            if (!v.equals(old)) {
+                changed.add(v);
+            }
+        }
+        removed.addAll(before.keySet());
+    }
+}
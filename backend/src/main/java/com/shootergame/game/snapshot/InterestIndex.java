@@ -0,0 +1,91 @@
+package com.shootergame.game.snapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.SpatialGrid;
+
+/**
+ * Broadphase over the entities of one state snapshot, so each client's area of
+ * interest is cut from the cells around it instead of from every entity.
+ * Built once per broadcast and shared by all clients of the game. Views are
+ * considered relevant within a square of half-size {@code radius} around the
+ * client's player, and stay relevant until they are {@code grace} further out.
+ * Not thread-safe: use one index per broadcasting thread, and finish filtering
+ * a snapshot before indexing the next one.
+ */
+public class InterestIndex {
+
+    private final double radius;
+    private final double grace;
+    private CollisionMap map;
+    private SpatialGrid<PlayerView> players;
+    private SpatialGrid<ProjectileView> projectiles;
+    private SpatialGrid<PowerupView> powerups;
+    private final Map<Integer, PlayerView> playersById = new HashMap<>();
+
+    public InterestIndex(double radius, double grace) {
+        if (radius <= 0 || grace < 0) {
+            throw new IllegalArgumentException("radius must be positive and grace not negative");
+        }
+        this.radius = radius;
+        this.grace = grace;
+    }
+
+    /**
+     * Index a snapshot of a world played on {@code map}. Grids are rebuilt only
+     * when the map changes.
+     */
+    public void index(StateSnapshot state, CollisionMap map) {
+        if (map != this.map) {
+            this.map = map;
+            players = new SpatialGrid<>(map);
+            projectiles = new SpatialGrid<>(map);
+            powerups = new SpatialGrid<>(map);
+        } else {
+            players.clear();
+            projectiles.clear();
+            powerups.clear();
+        }
+        playersById.clear();
+        for (PlayerView p : state.players()) {
+            players.update(p, p.x(), p.y());
+            playersById.put(p.id(), p);
+        }
+        for (ProjectileView p : state.projectiles()) {
+            projectiles.update(p, p.x(), p.y());
+        }
+        for (PowerupView p : state.powerups()) {
+            powerups.update(p, p.x(), p.y());
+        }
+    }
+
+    public double radius() {
+        return radius;
+    }
+
+    public double grace() {
+        return grace;
+    }
+
+    /** The indexed view of a player, or null if it is not in the snapshot. */
+    public PlayerView player(int id) {
+        return playersById.get(id);
+    }
+
+    // Candidates within radius + grace of (x, y); callers apply the exact test
+
+    void playersNear(double x, double y, List<PlayerView> out) {
+        players.query(x, y, radius + grace, out);
+    }
+
+    void projectilesNear(double x, double y, List<ProjectileView> out) {
+        projectiles.query(x, y, radius + grace, out);
+    }
+
+    void powerupsNear(double x, double y, List<PowerupView> out) {
+        powerups.query(x, y, radius + grace, out);
+    }
+}
@@ -0,0 +1,23 @@
+package com.shootergame.game.snapshot;
+
+import com.shootergame.game.entity.PlayerState;
+
+/**
+ * Wire view of a player inside a state snapshot.
+ * Only carries the fields the client renders.
+ */
+public record PlayerView(
+    int id,
+    double x,
+    double y,
+    String color,
+    int lives,
+    double invulnerableTime,
+    boolean hasSpeedBoost,
+    double speedBoostTimer
+) {
+    public static PlayerView of(PlayerState ps) {
+        return new PlayerView(ps.id, ps.x, ps.y, ps.color, ps.lives,
+            ps.invulnerableTime, ps.hasSpeedBoost, ps.speedBoostTimer);
+    }
+}
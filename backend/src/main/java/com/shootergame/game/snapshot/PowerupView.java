@@ -0,0 +1,19 @@
+package com.shootergame.game.snapshot;
+
+import com.shootergame.game.entity.PowerupState;
+
+/**
+ * Wire view of a powerup inside a state snapshot.
+ * The icon path is a client-side asset concern and is not sent.
+ */
+public record PowerupView(
+    int id,
+    double x,
+    double y,
+    String type,
+    boolean active
+) {
+    public static PowerupView of(PowerupState p) {
+        return new PowerupView(p.id, p.x, p.y, p.type, p.active);
+    }
+}
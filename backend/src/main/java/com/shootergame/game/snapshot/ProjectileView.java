@@ -0,0 +1,18 @@
+package com.shootergame.game.snapshot;
+
+import com.shootergame.game.entity.ProjectileStore;
+
+/**
+ * Wire view of a projectile inside a state snapshot.
+ */
+public record ProjectileView(
+    int id,
+    double x,
+    double y,
+    double vx,
+    double vy
+) {
+    public static ProjectileView of(ProjectileStore store, int i) {
+        return new ProjectileView(store.id(i), store.x(i), store.y(i), store.vx(i), store.vy(i));
+    }
+}
@@ -0,0 +1,66 @@
+package com.shootergame.game.snapshot;
+
+/**
+ * Short ring of the most recent snapshots of one world, keyed by sequence number.
+ * Sequence numbers start at 1; deltas are computed against entries still in the ring.
+ * Not thread-safe: it has one writer at a time, and each hand-over to another
+ * thread happens-after everything the previous one wrote. In a game loop the
+ * writer is the SnapshotPublisher encode job of the world; the game's outbox
+ * lets one job run per game at a time, and a job is only scheduled after the
+ * previous one gave up the outbox lock, so it sees that job's writes. With no
+ * encoder threads the tick thread writes it instead. Reads for deltas happen
+ * inside the same job.
+ * On a cluster front-end the writer is the game's outbound pump thread, which
+ * records under the history's lock. After a migration the history is shared
+ * with the pump for the new node, which is started only after the old pump has
+ * been joined, so sequence numbers carry on. A game reopened after its node was
+ * lost keeps the history too; the old pump stops recording under the lock first.
+ */
+public class SnapshotHistory {
+
+    /** Number of snapshots kept (~1.6 s at the 50 ms broadcast rate). */
+    public static final int CAPACITY = 32;
+
+    private final StateSnapshot[] ring = new StateSnapshot[CAPACITY];
+    private final long[] seqs = new long[CAPACITY];
+    private long latestSeq = 0L;
+
+    /**
+     * Store a snapshot and return its sequence number.
+     */
+    public long record(StateSnapshot snapshot) {
+        long seq = latestSeq + 1;
+        put(seq, snapshot);
+        return seq;
+    }
+
+    /**
+     * Store a snapshot under a sequence number numbered elsewhere, such as the
+     * filtered view one client was sent of a world's snapshot {@code seq}.
+     * Sequence numbers must increase but may skip.
+     */
+    public void put(long seq, StateSnapshot snapshot) {
+        if (seq <= latestSeq) {
+            throw new IllegalArgumentException("seq " + seq + " is not after " + latestSeq);
+        }
+        latestSeq = seq;
+        int slot = (int) (seq % CAPACITY);
+        ring[slot] = snapshot;
+        seqs[slot] = seq;
+    }
+
+    /**
+     * The snapshot with the given sequence number, or null if it has fallen out of the ring.
+     */
+    public StateSnapshot get(long seq) {
+        if (seq <= 0 || seq > latestSeq || latestSeq - seq >= CAPACITY) {
+            return null;
+        }
+        int slot = (int) (seq % CAPACITY);
+        return seqs[slot] == seq ? ring[slot] : null;
+    }
+
+    public long getLatestSeq() {
+        return latestSeq;
+    }
+}
@@ -0,0 +1,48 @@
+package com.shootergame.game.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.entity.PlayerState;
+import com.shootergame.game.entity.PowerupState;
+import com.shootergame.game.entity.ProjectileStore;
+
+/**
+ * The "state" message broadcast to clients.
+ * Built from views so internal entity fields never reach the wire.
+ * Component order is the JSON key order.
+ */
+public record StateSnapshot(
+    String type,
+    List<PlayerView> players,
+    List<ProjectileView> projectiles,
+    List<PowerupView> powerups,
+    String map,
+    boolean running
+) {
+    public static final String TYPE = "state";
+
+    /**
+     * Capture the client-visible state of a world. Only alive players are included.
+     */
+    public static StateSnapshot of(WorldState world) {
+        List<PlayerView> players = new ArrayList<>();
+        for (PlayerState ps : world.getPlayers().values()) {
+            if (ps.isAlive()) {
+                players.add(PlayerView.of(ps));
+            }
+        }
+        ProjectileStore store = world.getProjectiles();
+        List<ProjectileView> projectiles = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            projectiles.add(ProjectileView.of(store, i));
+        }
+        List<PowerupView> powerups = new ArrayList<>();
+        for (PowerupState p : world.getPowerups().values()) {
+            powerups.add(PowerupView.of(p));
+        }
+        return new StateSnapshot(TYPE, players, projectiles, powerups,
+            world.getCurrentMapId(), world.isMatchRunning());
+    }
+}
@@ -0,0 +1,202 @@
+package com.shootergame.network;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.java_websocket.framing.BinaryFrame;
+import org.java_websocket.framing.Framedata;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.StateSnapshot;
+
+/**
+ * Encodes state snapshots for clients that registered with "binary": true,
+ * as binary WebSocket frames. Multi-byte fields are big-endian; "varint" is an
+ * unsigned LEB128 of the value's two's-complement bits. Positions are u16
+ * fixed point over the map's pixel size (x = q / 65535 * width), velocities
+ * whole pixels per second, and timers tenths of a second, capped at 255.
+ * <pre>
+ * u8 kind (1 = state, 2 = state_delta)   u8 flags (bit 0: running)
+ * [delta only: varint seq, varint baseline]
+ * u8 map id length, map id UTF-8          u16 map width px, u16 map height px
+ * varint players, each: varint id, u16 x, u16 y, u8 color, u8 lives,
+ *     u8 flags (bit 0: invulnerable, bit 1: speed boost), u8 invulnerable time, u8 speed boost time
+ * [delta only: varint count, varint id... of removed players]
+ * varint projectiles, each: varint id, u16 x, u16 y, i16 vx, i16 vy
+ * [delta only: removed projectiles, as for players]
+ * varint powerups, each: varint id, u16 x, u16 y, u8 type, u8 flags (bit 0: active)
+ * [delta only: removed powerups, as for players]
+ * </pre>
+ * Colors and powerup types are indexes into {@link #COLORS} and
+ * {@link #POWERUP_TYPES}; 255 means a value not in the table.
+ * Reuses its buffer and frame like {@link FrameEncoder}, with the same
+ * threading rules: one encoder per thread, each frame valid until the next call.
+ */
+public class BinarySnapshotEncoder {
+
+    public static final int KIND_STATE = 1;
+    public static final int KIND_DELTA = 2;
+    public static final List<String> COLORS = List.of("green", "red", "blue", "yellow");
+    public static final List<String> POWERUP_TYPES = List.of("speed", "noCooldown", "spreadShot");
+    public static final int UNKNOWN = 255;
+
+    // Worst case per entity: 5-byte varint id plus its fixed fields
+    private static final int PLAYER_MAX = 5 + 4 + 5;
+    private static final int PROJECTILE_MAX = 5 + 4 + 4;
+    private static final int POWERUP_MAX = 5 + 4 + 2;
+    private static final int ID_MAX = 5;
+
+    private final BinaryFrame frame = new BinaryFrame();
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    /**
+     * Encode a full snapshot of a world played on {@code map}.
+     * The returned frame is only valid until the next call.
+     */
+    public Framedata encode(StateSnapshot state, CollisionMap map) {
+        begin(state.map(), state.players().size(), state.projectiles().size(), state.powerups().size(), 0);
+        buffer.put((byte) KIND_STATE);
+        buffer.put((byte) (state.running() ? 1 : 0));
+        putHeader(state.map(), map);
+        putPlayers(state.players(), map);
+        putProjectiles(state.projectiles(), map);
+        putPowerups(state.powerups(), map);
+        return finish();
+    }
+
+    /**
+     * Encode a delta snapshot of a world played on {@code map}.
+     * The returned frame is only valid until the next call.
+     */
+    public Framedata encode(DeltaSnapshot delta, CollisionMap map) {
+        int removed = delta.removedPlayers().size() + delta.removedProjectiles().size()
+            + delta.removedPowerups().size();
+        begin(delta.map(), delta.players().size(), delta.projectiles().size(), delta.powerups().size(), removed);
+        buffer.put((byte) KIND_DELTA);
+        buffer.put((byte) (delta.running() ? 1 : 0));
+        putVarLong(delta.seq());
+        putVarLong(delta.baseline());
+        putHeader(delta.map(), map);
+        putPlayers(delta.players(), map);
+        putIds(delta.removedPlayers());
+        putProjectiles(delta.projectiles(), map);
+        putIds(delta.removedProjectiles());
+        putPowerups(delta.powerups(), map);
+        putIds(delta.removedPowerups());
+        return finish();
+    }
+
+    /** Bytes in the most recently encoded frame payload. */
+    public int lastPayloadSize() {
+        return buffer.limit();
+    }
+
+    // Make room for the worst case up front, so the puts never overflow
+    private void begin(String mapId, int players, int projectiles, int powerups, int removedIds) {
+        // kind, flags, seq and baseline, map id, bounds, six list counts
+        int bound = 2 + 20 + 1 + mapId.length() * 3 + 4 + 6 * 5
+            + players * PLAYER_MAX + projectiles * PROJECTILE_MAX + powerups * POWERUP_MAX + removedIds * ID_MAX;
+        if (buffer.capacity() < bound) {
+            buffer = ByteBuffer.allocate(Math.max(bound, buffer.capacity() * 2));
+        }
+        buffer.clear();
+    }
+
+    private Framedata finish() {
+        buffer.flip();
+        frame.setFin(true);
+        frame.setPayload(buffer);
+        return frame;
+    }
+
+    private void putHeader(String mapId, CollisionMap map) {
+        byte[] id = mapId.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(id.length, 255);
+        buffer.put((byte) length);
+        buffer.put(id, 0, length);
+        buffer.putShort((short) map.getPixelWidth());
+        buffer.putShort((short) map.getPixelHeight());
+    }
+
+    private void putPlayers(List<PlayerView> players, CollisionMap map) {
+        putVarLong(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            PlayerView p = players.get(i);
+            putVarLong(p.id() & 0xffffffffL);
+            putPosition(p.x(), p.y(), map);
+            buffer.put((byte) code(COLORS, p.color()));
+            buffer.put((byte) Math.max(0, Math.min(255, p.lives())));
+            int flags = (p.invulnerableTime() > 0 ? 1 : 0) | (p.hasSpeedBoost() ? 2 : 0);
+            buffer.put((byte) flags);
+            buffer.put((byte) tenths(p.invulnerableTime()));
+            buffer.put((byte) tenths(p.speedBoostTimer()));
+        }
+    }
+
+    private void putProjectiles(List<ProjectileView> projectiles, CollisionMap map) {
+        putVarLong(projectiles.size());
+        for (int i = 0; i < projectiles.size(); i++) {
+            ProjectileView p = projectiles.get(i);
+            putVarLong(p.id() & 0xffffffffL);
+            putPosition(p.x(), p.y(), map);
+            buffer.putShort(velocity(p.vx()));
+            buffer.putShort(velocity(p.vy()));
+        }
+    }
+
+    private void putPowerups(List<PowerupView> powerups, CollisionMap map) {
+        putVarLong(powerups.size());
+        for (int i = 0; i < powerups.size(); i++) {
+            PowerupView p = powerups.get(i);
+            putVarLong(p.id() & 0xffffffffL);
+            putPosition(p.x(), p.y(), map);
+            buffer.put((byte) code(POWERUP_TYPES, p.type()));
+            buffer.put((byte) (p.active() ? 1 : 0));
+        }
+    }
+
+    private void putIds(List<Integer> ids) {
+        putVarLong(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            putVarLong(ids.get(i) & 0xffffffffL);
+        }
+    }
+
+    private void putPosition(double x, double y, CollisionMap map) {
+        buffer.putShort(fixed(x, map.getPixelWidth()));
+        buffer.putShort(fixed(y, map.getPixelHeight()));
+    }
+
+    private void putVarLong(long v) {
+        while ((v & ~0x7fL) != 0) {
+            buffer.put((byte) ((v & 0x7f) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    private static short fixed(double v, int extent) {
+        double clamped = v < 0 ? 0 : (v > extent ? extent : v);
+        return (short) Math.round(clamped / extent * 65535.0);
+    }
+
+    private static short velocity(double v) {
+        long r = Math.round(v);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, r));
+    }
+
+    private static int tenths(double seconds) {
+        long t = Math.round(seconds * 10.0);
+        return (int) Math.max(0, Math.min(255, t));
+    }
+
+    private static int code(List<String> table, String value) {
+        int i = table.indexOf(value);
+        return i < 0 ? UNKNOWN : i;
+    }
+}
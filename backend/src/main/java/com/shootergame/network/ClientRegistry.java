@@ -1,56 +1,154 @@
 package com.shootergame.network;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 import org.java_websocket.WebSocket;
 import com.shootergame.config.SharedConfig;
+import com.shootergame.game.snapshot.AreaOfInterest;
 
 /**
  * Manages the registry of connected clients.
- * Tracks the mapping between WebSocket connections and (gameId, playerId).
+ * Tracks the mapping between WebSocket connections and (gameId, playerId),
+ * and indexes sockets by game so a broadcast reads its recipients directly.
  */
 public class ClientRegistry {
 
     private static class ClientInfo {
         final String gameId;
         final int playerId;
+        final boolean deltaSnapshots;
+        final boolean binarySnapshots;
+        // Latest state snapshot sequence the client acknowledged (0 = none)
+        volatile long ackedSeq = 0L;
+        // What the client is sent when interest management is on
+        final AreaOfInterest interest = new AreaOfInterest();
 
-        ClientInfo(String gameId, int playerId) {
+        ClientInfo(String gameId, int playerId, boolean deltaSnapshots, boolean binarySnapshots) {
             this.gameId = gameId;
             this.playerId = playerId;
+            this.deltaSnapshots = deltaSnapshots;
+            this.binarySnapshots = binarySnapshots;
         }
     }
 
     private final Map<WebSocket, ClientInfo> clients = new ConcurrentHashMap<>();
-    private static final ClientInfo UNREGISTERED = new ClientInfo("", -1);
+    private static final ClientInfo UNREGISTERED = new ClientInfo("", -1, false, false);
+    // gameId -> its registered sockets. Each list is immutable and replaced on
+    // every change (registrations are rare next to broadcasts); guarded by this for writes
+    private final Map<String, List<WebSocket>> socketsByGame = new ConcurrentHashMap<>();
+    private final int maxPlayers = SharedConfig.getInt("MAX_PLAYERS", 6);
 
     /**
      * Register a client connection with a player ID and gameId.
      */
     public void register(WebSocket socket, String gameId, int playerId) {
-        int max = SharedConfig.getInt("MAX_PLAYERS", 6);
-        int current = getSocketsForGame(gameId).size();
-        if (current >= max) {
+        register(socket, gameId, playerId, false);
+    }
+
+    /**
+     * Register a client connection, choosing whether it receives delta snapshots.
+     */
+    public void register(WebSocket socket, String gameId, int playerId, boolean deltaSnapshots) {
+        register(socket, gameId, playerId, deltaSnapshots, false);
+    }
+
+    /**
+     * Register a client connection, choosing delta snapshots and the binary snapshot encoding.
+     */
+    public synchronized void register(WebSocket socket, String gameId, int playerId,
+                                      boolean deltaSnapshots, boolean binarySnapshots) {
+        List<WebSocket> sockets = getSocketsForGame(gameId);
+        // A client registering again keeps its own seat
+        if (sockets.size() >= maxPlayers && !sockets.contains(socket)) {
             throw new IllegalStateException("Game full");
         }
-        clients.put(socket, new ClientInfo(gameId, playerId));
+        ClientInfo previous = clients.put(socket, new ClientInfo(gameId, playerId, deltaSnapshots, binarySnapshots));
+        if (previous == null || !gameId.equals(previous.gameId)) {
+            unindex(socket, previous);
+            List<WebSocket> next = new ArrayList<>(sockets);
+            next.add(socket);
+            socketsByGame.put(gameId, List.copyOf(next));
+        }
+    }
+
+    /**
+     * Record that a client applied the state snapshot with the given sequence number.
+     * The latest ack wins rather than the highest: acks arrive in order on the
+     * socket, and a bogus ack past anything sent would otherwise pin the client
+     * to a baseline no history holds.
+     */
+    public void acknowledge(WebSocket socket, long seq) {
+        ClientInfo v = clients.get(socket);
+        if (v == null || v == UNREGISTERED) return;
+        v.ackedSeq = seq;
+    }
+
+    /**
+     * Whether the client asked for delta snapshots when it registered.
+     */
+    public boolean wantsDeltaSnapshots(WebSocket socket) {
+        ClientInfo v = clients.get(socket);
+        return v != null && v.deltaSnapshots;
+    }
+
+    /**
+     * Whether the client asked for binary snapshots when it registered.
+     */
+    public boolean wantsBinarySnapshots(WebSocket socket) {
+        ClientInfo v = clients.get(socket);
+        return v != null && v.binarySnapshots;
+    }
+
+    /**
+     * Last acknowledged snapshot sequence for a client, or 0 if none.
+     */
+    public long getAckedSeq(WebSocket socket) {
+        ClientInfo v = clients.get(socket);
+        return v == null ? 0L : v.ackedSeq;
+    }
+
+    /**
+     * The client's area of interest, or null if the socket is not registered to a game.
+     */
+    public AreaOfInterest getAreaOfInterest(WebSocket socket) {
+        ClientInfo v = clients.get(socket);
+        if (v == null || v == UNREGISTERED) return null;
+        return v.interest;
     }
 
     /**
      * Register a connection without assigning a player id yet.
      */
-    public void registerConnection(WebSocket socket) {
-        clients.put(socket, UNREGISTERED);
+    public synchronized void registerConnection(WebSocket socket) {
+        unindex(socket, clients.put(socket, UNREGISTERED));
     }
 
     /**
      * Unregister a client connection.
      */
-    public void unregister(WebSocket socket) {
-        clients.remove(socket);
+    public synchronized void unregister(WebSocket socket) {
+        unindex(socket, clients.remove(socket));
+    }
+
+    // Drop a socket from the game it was registered to; caller holds the lock
+    private void unindex(WebSocket socket, ClientInfo info) {
+        if (info == null || info == UNREGISTERED) {
+            return;
+        }
+        List<WebSocket> sockets = socketsByGame.get(info.gameId);
+        if (sockets == null || !sockets.contains(socket)) {
+            return;
+        }
+        List<WebSocket> next = new ArrayList<>(sockets);
+        next.remove(socket);
+        if (next.isEmpty()) {
+            socketsByGame.remove(info.gameId);
+        } else {
+            socketsByGame.put(info.gameId, List.copyOf(next));
+        }
     }
 
     /**
@@ -87,13 +185,11 @@ public class ClientRegistry {
     }
 
     /**
-     * Get sockets for a specific gameId.
+     * Sockets registered to a game, in registration order. The list is an
+     * immutable snapshot shared with other callers; reading it allocates nothing.
      */
-    public Set<WebSocket> getSocketsForGame(String gameId) {
-        return clients.entrySet().stream()
-            .filter(e -> e.getValue() != null && e.getValue() != UNREGISTERED && gameId.equals(e.getValue().gameId))
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toSet());
+    public List<WebSocket> getSocketsForGame(String gameId) {
+        return socketsByGame.getOrDefault(gameId, List.of());
     }
 
     /**
@@ -0,0 +1,64 @@
+package com.shootergame.network;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.TextFrame;
+
+import com.shootergame.util.JsonSerializer;
+
+/**
+ * Encodes a message once into a reusable WebSocket text frame.
+ * The text and byte buffers are kept between calls, so encoding allocates
+ * nothing once the buffers have grown to the largest snapshot.
+ * Not thread-safe: use one encoder per thread, and finish sending a frame
+ * before encoding the next one into the same encoder.
+ */
+public class FrameEncoder {
+
+    private final StringBuilder text = new StringBuilder(4096);
+    private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder();
+    private final TextFrame frame = new TextFrame();
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    /**
+     * Serialize a message to JSON and wrap the UTF-8 bytes in a text frame.
+     * The returned frame is only valid until the next call.
+     */
+    public Framedata encodeJson(JsonSerializer serializer, Object message) {
+        text.setLength(0);
+        serializer.toJson(message, text);
+        return encodeText(text);
+    }
+
+    /**
+     * Wrap already-built text in a text frame. The returned frame is only valid until the next call.
+     */
+    public Framedata encodeText(CharSequence chars) {
+        while (true) {
+            buffer.clear();
+            utf8.reset();
+            CoderResult result = utf8.encode(CharBuffer.wrap(chars), buffer, true);
+            if (!result.isOverflow()) {
+                result = utf8.flush(buffer);
+            }
+            if (result.isOverflow()) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                continue;
+            }
+            buffer.flip();
+            frame.setFin(true);
+            frame.setPayload(buffer);
+            return frame;
+        }
+    }
+
+    /** Bytes in the most recently encoded frame payload. */
+    public int lastPayloadSize() {
+        return buffer.limit();
+    }
+}
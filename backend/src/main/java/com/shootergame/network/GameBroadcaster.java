@@ -0,0 +1,16 @@
+package com.shootergame.network;
+
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+
+/**
+ * Where a game's outgoing messages go.
+ * Implemented by the network server, and by simulation nodes, which forward
+ * them to the front-end that owns the clients.
+ */
+public interface GameBroadcaster {
+
+    void broadcastToGame(String gameId, String message);
+
+    void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history);
+}
@@ -5,6 +5,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonObject;
+import com.shootergame.game.input.InputSink;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.MembershipSink;
+import com.shootergame.game.input.PlayerInput;
 import com.shootergame.util.JsonSerializer;
 import com.shootergame.util.TupleSpaces;
 
@@ -21,11 +25,31 @@ public class MessageHandler {
     private final Space space;
     private final ClientRegistry clientRegistry;
     private final JsonSerializer serializer;
+    // Replies go through the connection's send queue, in order with broadcasts
+    private final SendQueues sendQueues;
+    private volatile InputSink inputSink;
+    private volatile MembershipSink membershipSink;
 
-    public MessageHandler(Space space, ClientRegistry clientRegistry, JsonSerializer serializer) {
+    public MessageHandler(Space space, ClientRegistry clientRegistry, JsonSerializer serializer,
+                          SendQueues sendQueues) {
         this.space = space;
         this.clientRegistry = clientRegistry;
         this.serializer = serializer;
+        this.sendQueues = sendQueues;
+    }
+
+    /**
+     * Set where player inputs are delivered (normally the game loop).
+     */
+    public void setInputSink(InputSink inputSink) {
+        this.inputSink = inputSink;
+    }
+
+    /**
+     * Set where player joins are announced (normally the game loop).
+     */
+    public void setMembershipSink(MembershipSink membershipSink) {
+        this.membershipSink = membershipSink;
     }
 
     /**
@@ -44,6 +68,9 @@ public class MessageHandler {
                 case "input":
                     handleInput(conn, obj);
                     break;
+                case "ack":
+                    handleAck(conn, obj);
+                    break;
                 case "ping":
                     handlePing(conn);
                     break;
@@ -65,16 +92,17 @@ public class MessageHandler {
 
         int playerId = obj.get("playerId").getAsInt();
         String gameId = obj.has("gameId") ? obj.get("gameId").getAsString() : "default";
+        // Clients opt into delta snapshots; everyone else keeps getting full "state" messages
+        boolean delta = obj.has("delta") && obj.get("delta").getAsBoolean();
+        // Likewise for binary snapshot frames; see BinarySnapshotEncoder
+        boolean binary = obj.has("binary") && obj.get("binary").getAsBoolean();
 
         try {
-            clientRegistry.register(conn, gameId, playerId);
+            clientRegistry.register(conn, gameId, playerId, delta, binary);
             TupleSpaces.putPlayer(space, gameId, playerId);
-                // Send a single neutral movement to initialize player state
-                try {
-                    TupleSpaces.putInput(space, gameId, playerId, "STOP_RIGHT", "");
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
+            submitMembership(gameId, MembershipEvent.join(playerId));
+            // Send a single neutral movement to initialize player state
+            submitInput(gameId, new PlayerInput(playerId, "STOP_RIGHT", ""));
             logger.info("Player {} registered for gameId={}", playerId, gameId);
         } catch (IllegalStateException e) {
             // registry enforces capacity
@@ -87,8 +115,12 @@ public class MessageHandler {
             return;
         }
 
-        conn.send(serializer.toJson(new java.util.HashMap<>(
-            java.util.Map.of("type", "registered", "playerId", playerId))));
+        java.util.Map<String, Object> registered = new java.util.HashMap<>(
+            java.util.Map.of("type", "registered", "playerId", playerId));
+        if (binary) {
+            registered.put("binary", true); // confirms snapshots will arrive as binary frames
+        }
+        sendQueues.sendText(conn, serializer.toJson(registered));
 
         logger.info("Registered player {} (connected={})", playerId, clientRegistry.getClientCount());
     }
@@ -103,26 +135,47 @@ public class MessageHandler {
         String action = obj.get("action").getAsString();
         String payload = obj.has("payload") ? obj.get("payload").getAsString() : "";
 
-        try {
-            // Determine gameId from registry and write to game-scoped tuple space
-            String gameId = clientRegistry.getGameId(conn);
-            if (gameId == null) gameId = "default";
-            TupleSpaces.putInput(space, gameId, playerId, action, payload);
-            logger.debug("Stored input: player={} action={} payload={}", playerId, action, payload);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            sendError(conn, "Operation interrupted");
+        // Determine gameId from registry and hand the input to that game's queue
+        String gameId = clientRegistry.getGameId(conn);
+        if (gameId == null) gameId = "default";
+        submitInput(gameId, new PlayerInput(playerId, action, payload));
+        logger.debug("Queued input: player={} action={} payload={}", playerId, action, payload);
+    }
+
+    private void submitInput(String gameId, PlayerInput input) {
+        InputSink sink = inputSink;
+        if (sink == null) {
+            logger.debug("No input sink attached; dropping input for game={}", gameId);
+            return;
+        }
+        sink.submit(gameId, input);
+    }
+
+    private void submitMembership(String gameId, MembershipEvent event) {
+        MembershipSink sink = membershipSink;
+        if (sink == null) {
+            logger.debug("No membership sink attached; dropping {} for game={}", event, gameId);
+            return;
+        }
+        sink.submit(gameId, event);
+    }
+
+    private void handleAck(WebSocket conn, JsonObject obj) {
+        if (!obj.has("seq")) {
+            sendError(conn, "seq required for ack");
+            return;
         }
+        clientRegistry.acknowledge(conn, obj.get("seq").getAsLong());
     }
 
     private void handlePing(WebSocket conn) {
-        conn.send(serializer.toJson(new java.util.HashMap<>(
+        sendQueues.sendText(conn, serializer.toJson(new java.util.HashMap<>(
             java.util.Map.of("type", "pong", "ts", System.currentTimeMillis()))));
     }
 
     private void sendError(WebSocket conn, String message) {
         try {
-            conn.send(serializer.toJson(new java.util.HashMap<>(
+            sendQueues.sendText(conn, serializer.toJson(new java.util.HashMap<>(
                 java.util.Map.of("type", "error", "message", message))));
         } catch (Exception e) {
             logger.error("Failed to send error to client", e);
@@ -1,19 +1,35 @@
 package com.shootergame.network;
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.jspace.Space;
 import org.java_websocket.WebSocket;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.framing.Framedata;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.shootergame.config.SharedConfig;
+import com.shootergame.game.input.InputSink;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.MembershipSink;
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.MapRepository;
+import com.shootergame.game.snapshot.AreaOfInterest;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.InterestIndex;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
 import com.shootergame.util.JsonSerializer;
 import com.shootergame.util.TupleSpaces;
 
@@ -21,7 +37,7 @@ import com.shootergame.util.TupleSpaces;
  * WebSocket server that manages client connections and lifecycle.
  * Delegates message interpretation to MessageHandler.
  */
-public class NetworkServer extends WebSocketServer {
+public class NetworkServer extends WebSocketServer implements GameBroadcaster {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkServer.class);
 
@@ -29,18 +45,31 @@ public class NetworkServer extends WebSocketServer {
     private final ClientRegistry clientRegistry;
     private final MessageHandler messageHandler;
     private final JsonSerializer serializer;
-    private final ExecutorService broadcaster;
     private final ScheduledExecutorService sweeper;
+    private final SendQueues sendQueues;
+    // One encoder per broadcasting thread; frames are sent before the encoder is reused
+    private final ThreadLocal<FrameEncoder> frameEncoders = ThreadLocal.withInitial(FrameEncoder::new);
+    private final ThreadLocal<BinarySnapshotEncoder> binaryEncoders = ThreadLocal.withInitial(BinarySnapshotEncoder::new);
+    private final SnapshotMetrics snapshotMetrics = new SnapshotMetrics();
+    // Every Nth snapshot is also encoded as full JSON to size the savings in the metrics; 0 never
+    private final int metricsSampleEvery = SharedConfig.getInt("SNAPSHOT_METRICS_EVERY", 10);
+    // Half-size in pixels of the square each client is sent around its player; 0 sends the whole world
+    private final int interestRadius = SharedConfig.getInt("AOI_RADIUS", 0);
+    private final int interestGrace = SharedConfig.getInt("AOI_GRACE", 64);
+    // One index per broadcasting thread, like the encoders
+    private final ThreadLocal<InterestIndex> interestIndexes =
+        ThreadLocal.withInitial(() -> new InterestIndex(interestRadius, interestGrace));
+    private volatile MembershipSink membershipSink;
 
     public NetworkServer(InetSocketAddress address, Space space) {
         super(address);
         this.space = space;
         this.serializer = new JsonSerializer();
         this.clientRegistry = new ClientRegistry();
-        this.messageHandler = new MessageHandler(space, clientRegistry, serializer);
-        // Use a small thread pool to perform socket sends asynchronously so
-        // a slow client cannot block the game tick thread.
-        this.broadcaster = Executors.newCachedThreadPool();
+        this.sendQueues = new SendQueues(
+            SharedConfig.getInt("SEND_WORKERS", Runtime.getRuntime().availableProcessors()),
+            SharedConfig.getInt("SEND_QUEUE_CAPACITY", 32));
+        this.messageHandler = new MessageHandler(space, clientRegistry, serializer, sendQueues);
         // Scheduled sweeper to detect closed sockets and clean up tuples
         this.sweeper = Executors.newSingleThreadScheduledExecutor();
         // Configure connection lost timeout so the underlying library detects
@@ -59,31 +88,7 @@ public class NetworkServer extends WebSocketServer {
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         logger.info("Client disconnected: {} (code={}, reason={})", 
             conn.getRemoteSocketAddress(), code, reason);
-        // Attempt to remove player tuple for this connection so worlds will drop the player
-        try {
-            Integer pid = clientRegistry.getPlayerId(conn);
-            String gid = clientRegistry.getGameId(conn);
-            if (pid != null) {
-                boolean removed = false;
-                if (gid != null) {
-                    removed = TupleSpaces.removePlayer(space, gid, pid);
-                } else {
-                    // try to remove from any game space if we don't know the game id
-                    removed = TupleSpaces.removePlayerFromAny(space, pid);
-                }
-                if (removed) {
-                    logger.info("Removed player {} tuple for game={} on disconnect", pid, gid);
-                } else {
-                    logger.info("No player tuple found for player {} on disconnect (game={})", pid, gid);
-                }
-            }
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-        } catch (Exception ex) {
-            logger.debug("Failed to remove player tuple on disconnect", ex);
-        }
-
-        clientRegistry.unregister(conn);
+        releasePlayer(conn, "disconnect");
     }
 
     @Override
@@ -96,31 +101,9 @@ public class NetworkServer extends WebSocketServer {
         logger.error("WebSocket error ({}): {}", 
             (conn != null ? conn.getRemoteSocketAddress() : "server"), 
             ex.getMessage(), ex);
-        // Attempt to clean up player tuples on socket error as well
+        // Clean up the player on socket error as well
         if (conn != null) {
-            try {
-                Integer pid = clientRegistry.getPlayerId(conn);
-                String gid = clientRegistry.getGameId(conn);
-                if (pid != null) {
-                    boolean removed = false;
-                    if (gid != null) {
-                        removed = TupleSpaces.removePlayer(space, gid, pid);
-                    } else {
-                        removed = TupleSpaces.removePlayerFromAny(space, pid);
-                    }
-                    if (removed) {
-                        logger.info("Removed player {} tuple for game={} on error", pid, gid);
-                    } else {
-                        logger.info("No player tuple found for player {} on error (game={})", pid, gid);
-                    }
-                }
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-            } catch (Exception e) {
-                logger.debug("Failed to remove player tuple on error", e);
-            }
-
-            clientRegistry.unregister(conn);
+            releasePlayer(conn, "error");
         }
     }
 
@@ -133,29 +116,7 @@ public class NetworkServer extends WebSocketServer {
             for (WebSocket socket : clientRegistry.getAllSockets()) {
                 try {
                     if (!socket.isOpen()) {
-                        Integer pid = clientRegistry.getPlayerId(socket);
-                        String gid = clientRegistry.getGameId(socket);
-                        if (pid != null) {
-                            logger.info("Sweeper removing player {} for closed socket (game={})", pid, gid);
-                            try {
-                                boolean removed = false;
-                                if (gid != null) {
-                                    removed = TupleSpaces.removePlayer(space, gid, pid);
-                                } else {
-                                    removed = TupleSpaces.removePlayerFromAny(space, pid);
-                                }
-                                if (removed) {
-                                    logger.info("Sweeper removed player {} tuple (game={})", pid, gid);
-                                } else {
-                                    logger.info("Sweeper found no tuple for player {} (game={})", pid, gid);
-                                }
-                            } catch (InterruptedException ie) {
-                                Thread.currentThread().interrupt();
-                            } catch (Exception e) {
-                                logger.debug("Sweeper failed to remove player tuple", e);
-                            }
-                        }
-                        clientRegistry.unregister(socket);
+                        releasePlayer(socket, "sweep");
                     }
                 } catch (Exception e) {
                     logger.debug("Error while sweeping socket cleanup", e);
@@ -166,55 +127,262 @@ public class NetworkServer extends WebSocketServer {
         }
     }
 
+    /**
+     * Remove the player tuple for a connection, tell its world the player left,
+     * and unregister the connection.
+     */
+    private void releasePlayer(WebSocket conn, String cause) {
+        try {
+            Integer pid = clientRegistry.getPlayerId(conn);
+            String gid = clientRegistry.getGameId(conn);
+            if (pid != null) {
+                boolean removed = false;
+                if (gid != null) {
+                    removed = TupleSpaces.removePlayer(space, gid, pid);
+                } else {
+                    // try to remove from any game space if we don't know the game id
+                    removed = TupleSpaces.removePlayerFromAny(space, pid);
+                }
+                if (removed) {
+                    logger.info("Removed player {} tuple for game={} on {}", pid, gid, cause);
+                } else {
+                    logger.info("No player tuple found for player {} on {} (game={})", pid, cause, gid);
+                }
+                MembershipSink sink = membershipSink;
+                if (gid != null && sink != null) {
+                    sink.submit(gid, MembershipEvent.leave(pid));
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            logger.debug("Failed to remove player tuple on " + cause, ex);
+        }
+
+        clientRegistry.unregister(conn);
+        sendQueues.remove(conn);
+    }
+
     @Override
     public void onStart() {
         logger.info("WebSocket server started on {}", getAddress());
     }
 
+    // Sends only queue the frame in the connection's send queue; send workers pass it
+    // on to the socket, so a slow client cannot block the caller.
+
+    @Override
     public void broadcast(String message) {
-        for (WebSocket socket : clientRegistry.getAllSockets()) {
-            broadcaster.submit(() -> {
-                try {
-                    socket.send(message);
-                } catch (Exception e) {
-                    logger.error("Error broadcasting to {}: {}", 
-                        socket.getRemoteSocketAddress(), e.getMessage());
-                }
-            });
-        }
+        sendReliable(getConnections(), frameEncoders.get().encodeText(message));
     }
 
+    /**
+     * Send a text message to every socket in a game. The message is encoded into
+     * a frame once and that frame is shared by all recipients.
+     */
+    @Override
     public void broadcastToGame(String gameId, String message) {
+        sendReliable(clientRegistry.getSocketsForGame(gameId), frameEncoders.get().encodeText(message));
+    }
+
+    /**
+     * Send a state snapshot to every socket in a game. Full-mode clients share one
+     * "state" frame. Delta-mode clients are grouped by acknowledged baseline, and
+     * each group shares one "state_delta" frame; clients whose ack is missing or
+     * older than the history get a full delta with baseline 0. Binary-mode
+     * clients are grouped the same way and share binary frames.
+     * With AOI_RADIUS set, each client is instead sent its own area of interest.
+     */
+    @Override
+    public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {
+        if (interestRadius > 0) {
+            broadcastInterest(gameId, seq, state);
+            return;
+        }
+        FrameEncoder encoder = frameEncoders.get();
+        List<WebSocket> fullClients = new ArrayList<>();
+        List<WebSocket> binaryClients = new ArrayList<>();
+        Map<Long, List<WebSocket>> deltaClients = new HashMap<>();
+        Map<Long, List<WebSocket>> binaryDeltaClients = new HashMap<>();
         for (WebSocket socket : clientRegistry.getSocketsForGame(gameId)) {
-            broadcaster.submit(() -> {
-                try {
-                    socket.send(message);
-                } catch (Exception e) {
-                    logger.error("Error broadcasting to {}: {}", 
-                        socket.getRemoteSocketAddress(), e.getMessage());
+            boolean binary = clientRegistry.wantsBinarySnapshots(socket);
+            if (!clientRegistry.wantsDeltaSnapshots(socket)) {
+                (binary ? binaryClients : fullClients).add(socket);
+                continue;
+            }
+            long acked = clientRegistry.getAckedSeq(socket);
+            long baseline = history.get(acked) != null ? acked : 0L;
+            (binary ? binaryDeltaClients : deltaClients).computeIfAbsent(baseline, k -> new ArrayList<>()).add(socket);
+        }
+
+        // Full JSON is only built for full-mode clients or to size the savings on a sampled snapshot
+        int fullSize = 0;
+        if (!fullClients.isEmpty() || isMetricsSample(seq)) {
+            Framedata full = encoder.encodeJson(serializer, state);
+            fullSize = encoder.lastPayloadSize();
+            sendFrame(fullClients, full);
+            snapshotMetrics.recordFull(fullSize, fullClients.size());
+        }
+
+        for (Map.Entry<Long, List<WebSocket>> group : deltaClients.entrySet()) {
+            DeltaSnapshot delta = delta(group.getKey(), history, seq, state);
+            Framedata frame = encoder.encodeJson(serializer, delta);
+            sendFrame(group.getValue(), frame);
+            snapshotMetrics.recordDelta(encoder.lastPayloadSize(), fullSize, group.getValue().size(), delta.baseline() == 0L);
+        }
+
+        if (binaryClients.isEmpty() && binaryDeltaClients.isEmpty()) {
+            return;
+        }
+        BinarySnapshotEncoder binaryEncoder = binaryEncoders.get();
+        CollisionMap map = MapRepository.get(state.map());
+        if (!binaryClients.isEmpty()) {
+            sendFrame(binaryClients, binaryEncoder.encode(state, map));
+            snapshotMetrics.recordBinary(binaryEncoder.lastPayloadSize(), fullSize, binaryClients.size());
+        }
+        for (Map.Entry<Long, List<WebSocket>> group : binaryDeltaClients.entrySet()) {
+            sendFrame(group.getValue(), binaryEncoder.encode(delta(group.getKey(), history, seq, state), map));
+            snapshotMetrics.recordBinary(binaryEncoder.lastPayloadSize(), fullSize, group.getValue().size());
+        }
+    }
+
+    private boolean isMetricsSample(long seq) {
+        return metricsSampleEvery > 0 && seq % metricsSampleEvery == 0;
+    }
+
+    private static DeltaSnapshot delta(long baseline, SnapshotHistory history, long seq, StateSnapshot state) {
+        return baseline == 0L
+            ? DeltaSnapshot.full(seq, state)
+            : DeltaSnapshot.between(baseline, history.get(baseline), seq, state);
+    }
+
+    /**
+     * Send every socket in a game the entities around its own player. Frames are
+     * built per client; deltas are taken against what that client was sent.
+     */
+    private void broadcastInterest(String gameId, long seq, StateSnapshot state) {
+        FrameEncoder encoder = frameEncoders.get();
+        BinarySnapshotEncoder binaryEncoder = binaryEncoders.get();
+        CollisionMap map = MapRepository.get(state.map());
+        InterestIndex index = interestIndexes.get();
+        index.index(state, map);
+        // The whole-world size, for the saving in the metrics, on sampled snapshots only
+        int worldSize = 0;
+        if (isMetricsSample(seq)) {
+            encoder.encodeJson(serializer, state);
+            worldSize = encoder.lastPayloadSize();
+        }
+
+        for (WebSocket socket : clientRegistry.getSocketsForGame(gameId)) {
+            Integer playerId = clientRegistry.getPlayerId(socket);
+            AreaOfInterest interest = clientRegistry.getAreaOfInterest(socket);
+            if (playerId == null || interest == null) {
+                continue; // left since the socket list was taken
+            }
+            StateSnapshot view = interest.filter(seq, state, index, playerId);
+            boolean binary = clientRegistry.wantsBinarySnapshots(socket);
+            Object message = view;
+            boolean fallback = false;
+            if (clientRegistry.wantsDeltaSnapshots(socket)) {
+                long acked = clientRegistry.getAckedSeq(socket);
+                StateSnapshot base = interest.sent(acked);
+                fallback = base == null;
+                message = fallback ? DeltaSnapshot.full(seq, view) : DeltaSnapshot.between(acked, base, seq, view);
+            }
+            int bytes;
+            if (binary) {
+                Framedata frame = message instanceof DeltaSnapshot d
+                    ? binaryEncoder.encode(d, map)
+                    : binaryEncoder.encode(view, map);
+                sendFrame(List.of(socket), frame);
+                bytes = binaryEncoder.lastPayloadSize();
+                snapshotMetrics.recordBinary(bytes, worldSize, 1);
+            } else {
+                sendFrame(List.of(socket), encoder.encodeJson(serializer, message));
+                bytes = encoder.lastPayloadSize();
+                if (message instanceof DeltaSnapshot) {
+                    snapshotMetrics.recordDelta(bytes, worldSize, 1, fallback);
+                } else {
+                    snapshotMetrics.recordFull(bytes, 1);
                 }
-            });
+            }
+            snapshotMetrics.recordInterest(bytes, worldSize);
+        }
+    }
+
+    /**
+     * Queue a snapshot frame for each socket, replacing any older snapshot the
+     * socket has not been sent yet.
+     */
+    private void sendFrame(Iterable<WebSocket> sockets, Framedata frame) {
+        ByteBuffer payload = null;
+        for (WebSocket socket : sockets) {
+            if (payload == null) {
+                payload = SendQueues.copyOf(frame);
+            }
+            if (frame.getOpcode() == Opcode.BINARY) {
+                sendQueues.sendBinarySnapshot(socket, payload);
+            } else {
+                sendQueues.sendSnapshot(socket, payload);
+            }
         }
     }
 
+    private void sendReliable(Iterable<WebSocket> sockets, Framedata frame) {
+        ByteBuffer payload = null;
+        for (WebSocket socket : sockets) {
+            if (payload == null) {
+                payload = SendQueues.copyOf(frame);
+            }
+            sendQueues.send(socket, payload);
+        }
+    }
+
+    /**
+     * Send a prepared frame to every socket in a game, in order with its other
+     * messages. The frame is copied, so the caller may reuse it afterwards.
+     */
+    public void broadcastFrameToGame(String gameId, Framedata frame) {
+        sendReliable(clientRegistry.getSocketsForGame(gameId), frame);
+    }
+
     @Override
     public void stop() throws InterruptedException {
         try {
             super.stop();
         } finally {
-            try {
-                broadcaster.shutdownNow();
-            } catch (Exception e) {
-                logger.debug("Error shutting down broadcaster", e);
-            }
             try {
                 sweeper.shutdownNow();
             } catch (Exception e) {
                 logger.debug("Error shutting down sweeper", e);
             }
+            sendQueues.shutdown();
         }
     }
 
+    /**
+     * Route player inputs to the game loop.
+     */
+    public void setInputSink(InputSink inputSink) {
+        messageHandler.setInputSink(inputSink);
+    }
+
+    /**
+     * Route player joins and leaves to the game loop.
+     */
+    public void setMembershipSink(MembershipSink membershipSink) {
+        this.membershipSink = membershipSink;
+        messageHandler.setMembershipSink(membershipSink);
+    }
+
+    public SnapshotMetrics getSnapshotMetrics() {
+        return snapshotMetrics;
+    }
+
+    public SendQueues getSendQueues() {
+        return sendQueues;
+    }
+
     public ClientRegistry getClientRegistry() {
         return clientRegistry;
     }
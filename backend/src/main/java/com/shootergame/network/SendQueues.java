@@ -0,0 +1,256 @@
+package com.shootergame.network;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.BinaryFrame;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.TextFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Outbound queue per connection, drained by a fixed set of send workers.
+ * A state snapshot is handed to a socket only once the socket has written out
+ * what it was given before, so a slow client holds at most one snapshot here:
+ * a newer snapshot replaces the unsent one. Other messages are never dropped
+ * and keep their order; a client whose queue still fills up is disconnected.
+ * Each queue is drained by one worker at a time, so frames leave in order.
+ */
+public class SendQueues {
+
+    private static final Logger logger = LoggerFactory.getLogger(SendQueues.class);
+
+    // How soon a queue waiting on a busy socket is looked at again
+    private static final long RETRY_MS = 5L;
+
+    private final int capacity;
+    private final Map<WebSocket, Outbox> outboxes = new ConcurrentHashMap<>();
+    // Queues with frames to send and no worker on them yet
+    private final BlockingQueue<Outbox> ready = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retries;
+    private final LongAdder sentFrames = new LongAdder();
+    private final LongAdder droppedSnapshots = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+
+    /**
+     * @param workers number of send threads, normally one per core
+     * @param capacity frames a connection may have queued before it is dropped
+     */
+    public SendQueues(int workers, int capacity) {
+        if (workers < 1 || capacity < 1) {
+            throw new IllegalArgumentException("workers and capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        for (int i = 0; i < workers; i++) {
+            Thread t = new Thread(this::work, "Send-Worker-" + i);
+            t.setDaemon(true);
+            this.workers.add(t);
+            t.start();
+        }
+        this.retries = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Send-Retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * A private copy of a frame's payload, to be queued for any number of
+     * sockets after the frame itself is reused.
+     */
+    public static ByteBuffer copyOf(Framedata frame) {
+        ByteBuffer payload = frame.getPayloadData().duplicate();
+        ByteBuffer copy = ByteBuffer.allocate(payload.remaining());
+        copy.put(payload).flip();
+        return copy.asReadOnlyBuffer();
+    }
+
+    /**
+     * Queue a text message; it is sent after everything queued before it.
+     */
+    public void sendText(WebSocket socket, String text) {
+        send(socket, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer());
+    }
+
+    /**
+     * Queue a text frame payload; it is sent after everything queued before it.
+     */
+    public void send(WebSocket socket, ByteBuffer payload) {
+        offer(socket, payload, false, false);
+    }
+
+    /**
+     * Queue a state snapshot payload, replacing any snapshot still unsent.
+     */
+    public void sendSnapshot(WebSocket socket, ByteBuffer payload) {
+        offer(socket, payload, true, false);
+    }
+
+    /**
+     * Queue a binary state snapshot payload, replacing any snapshot still unsent.
+     */
+    public void sendBinarySnapshot(WebSocket socket, ByteBuffer payload) {
+        offer(socket, payload, true, true);
+    }
+
+    /**
+     * Forget a connection's queue, e.g. when it closes.
+     */
+    public void remove(WebSocket socket) {
+        Outbox outbox = outboxes.remove(socket);
+        if (outbox != null) {
+            synchronized (outbox) {
+                outbox.closed = true;
+                outbox.queue.clear();
+            }
+        }
+    }
+
+    public void shutdown() {
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+        retries.shutdownNow();
+    }
+
+    private void offer(WebSocket socket, ByteBuffer payload, boolean snapshot, boolean binary) {
+        Outbox outbox = outboxes.computeIfAbsent(socket, Outbox::new);
+        boolean wake = false;
+        boolean overflow = false;
+        synchronized (outbox) {
+            if (outbox.closed) {
+                return;
+            }
+            if (snapshot) {
+                for (Iterator<Outgoing> it = outbox.queue.iterator(); it.hasNext(); ) {
+                    if (it.next().snapshot()) {
+                        it.remove();
+                        droppedSnapshots.increment();
+                    }
+                }
+            }
+            if (outbox.queue.size() >= capacity) {
+                overflow = true;
+                outbox.closed = true;
+                outbox.queue.clear();
+            } else {
+                outbox.queue.add(new Outgoing(payload, snapshot, binary));
+                peakDepth.accumulateAndGet(outbox.queue.size(), Math::max);
+                if (!outbox.scheduled) {
+                    outbox.scheduled = true;
+                    wake = true;
+                }
+            }
+        }
+        if (overflow) {
+            overflows.increment();
+            outboxes.remove(socket, outbox);
+            logger.warn("Send queue of {} full, disconnecting", socket.getRemoteSocketAddress());
+            socket.close(CloseFrame.POLICY_VALIDATION, "send queue full");
+        } else if (wake) {
+            ready.add(outbox);
+        }
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                drain(ready.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send what the socket can take now. A snapshot waits while the socket is
+     * still writing, and everything behind it waits with it.
+     */
+    private void drain(Outbox outbox) {
+        while (true) {
+            Outgoing next;
+            synchronized (outbox) {
+                if (outbox.closed || outbox.queue.isEmpty()) {
+                    outbox.scheduled = false;
+                    return;
+                }
+                if (outbox.queue.peek().snapshot() && outbox.socket.hasBufferedData()) {
+                    // Still scheduled: newer snapshots replace this one until the retry
+                    if (!retries.isShutdown()) {
+                        retries.schedule(() -> ready.add(outbox), RETRY_MS, TimeUnit.MILLISECONDS);
+                    }
+                    return;
+                }
+                next = outbox.queue.poll();
+            }
+            try {
+                DataFrame frame = next.binary() ? new BinaryFrame() : new TextFrame();
+                frame.setFin(true);
+                frame.setPayload(next.payload().duplicate());
+                outbox.socket.sendFrame(frame);
+                sentFrames.increment();
+            } catch (Exception e) {
+                logger.debug("Dropping queue of {}: {}", outbox.socket.getRemoteSocketAddress(), e.getMessage());
+                remove(outbox.socket);
+                return;
+            }
+        }
+    }
+
+    public long getSentFrames() { return sentFrames.sum(); }
+    public long getDroppedSnapshots() { return droppedSnapshots.sum(); }
+    public long getOverflows() { return overflows.sum(); }
+    public int getPeakDepth() { return peakDepth.get(); }
+
+    /** Frames queued across all connections right now. */
+    public int getQueuedFrames() {
+        int total = 0;
+        for (Outbox outbox : outboxes.values()) {
+            synchronized (outbox) {
+                total += outbox.queue.size();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("workers=%d connections=%d queued=%d peak=%d sent=%d dropped snapshots=%d overflows=%d",
+            workers.size(), outboxes.size(), getQueuedFrames(), getPeakDepth(),
+            getSentFrames(), getDroppedSnapshots(), getOverflows());
+    }
+
+    private record Outgoing(ByteBuffer payload, boolean snapshot, boolean binary) {}
+
+    private static final class Outbox {
+        final WebSocket socket;
+        // Guarded by this
+        final ArrayDeque<Outgoing> queue = new ArrayDeque<>();
+        // A worker is draining this queue, or it is waiting in ready or for a retry
+        boolean scheduled;
+        boolean closed;
+
+        Outbox(WebSocket socket) {
+            this.socket = socket;
+        }
+    }
+}
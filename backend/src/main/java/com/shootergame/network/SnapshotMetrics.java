@@ -0,0 +1,112 @@
+package com.shootergame.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bandwidth counters for state snapshots, comparing delta and full modes.
+ * For delta-mode clients we also count what the full snapshot would have cost,
+ * so the saving can be read off directly. With interest management on, every
+ * client's frame is also counted against the whole-world snapshot. Binary
+ * frames are counted on their own, against the JSON full snapshot.
+ * The full snapshot is only sized on sampled snapshots (a size of 0 means it
+ * was not), so the ratios are taken over the sampled frames alone.
+ */
+public class SnapshotMetrics {
+
+    private final LongAdder fullFrames = new LongAdder();
+    private final LongAdder fullBytes = new LongAdder();
+    private final LongAdder deltaFrames = new LongAdder();
+    private final LongAdder deltaBytes = new LongAdder();
+    private final LongAdder deltaSampledBytes = new LongAdder();
+    private final LongAdder deltaFullEquivalentBytes = new LongAdder();
+    private final LongAdder deltaFallbacks = new LongAdder();
+    private final LongAdder binaryFrames = new LongAdder();
+    private final LongAdder binaryBytes = new LongAdder();
+    private final LongAdder binarySampledBytes = new LongAdder();
+    private final LongAdder binaryJsonBytes = new LongAdder();
+    private final LongAdder interestFrames = new LongAdder();
+    private final LongAdder interestBytes = new LongAdder();
+    private final LongAdder interestSampledBytes = new LongAdder();
+    private final LongAdder interestWorldBytes = new LongAdder();
+
+    void recordFull(int bytes, int recipients) {
+        fullFrames.add(recipients);
+        fullBytes.add((long) bytes * recipients);
+    }
+
+    void recordDelta(int bytes, int fullBytesEquivalent, int recipients, boolean fallback) {
+        deltaFrames.add(recipients);
+        deltaBytes.add((long) bytes * recipients);
+        if (fullBytesEquivalent > 0) {
+            deltaSampledBytes.add((long) bytes * recipients);
+            deltaFullEquivalentBytes.add((long) fullBytesEquivalent * recipients);
+        }
+        if (fallback) {
+            deltaFallbacks.add(recipients);
+        }
+    }
+
+    void recordBinary(int bytes, int jsonFullBytes, int recipients) {
+        binaryFrames.add(recipients);
+        binaryBytes.add((long) bytes * recipients);
+        if (jsonFullBytes > 0) {
+            binarySampledBytes.add((long) bytes * recipients);
+            binaryJsonBytes.add((long) jsonFullBytes * recipients);
+        }
+    }
+
+    void recordInterest(int bytes, int worldBytes) {
+        interestFrames.increment();
+        interestBytes.add(bytes);
+        if (worldBytes > 0) {
+            interestSampledBytes.add(bytes);
+            interestWorldBytes.add(worldBytes);
+        }
+    }
+
+    public long getFullBytes() { return fullBytes.sum(); }
+    public long getDeltaBytes() { return deltaBytes.sum(); }
+    public long getDeltaFullEquivalentBytes() { return deltaFullEquivalentBytes.sum(); }
+    public long getDeltaFallbacks() { return deltaFallbacks.sum(); }
+    public long getBinaryBytes() { return binaryBytes.sum(); }
+
+    /** Binary bytes as a fraction of what JSON full snapshots would have cost the same clients. */
+    public double getBinaryRatio() {
+        long json = binaryJsonBytes.sum();
+        return json == 0 ? 1.0 : (double) binarySampledBytes.sum() / json;
+    }
+
+    public long getInterestFrames() { return interestFrames.sum(); }
+    public long getInterestBytes() { return interestBytes.sum(); }
+
+    /** Filtered bytes as a fraction of sending every client the whole world. */
+    public double getInterestRatio() {
+        long world = interestWorldBytes.sum();
+        return world == 0 ? 1.0 : (double) interestSampledBytes.sum() / world;
+    }
+
+    /** Delta bytes as a fraction of what full snapshots would have cost the same clients. */
+    public double getDeltaRatio() {
+        long equivalent = deltaFullEquivalentBytes.sum();
+        return equivalent == 0 ? 1.0 : (double) deltaSampledBytes.sum() / equivalent;
+    }
+
+    @Override
+    public String toString() {
+        long fullCount = fullFrames.sum();
+        long deltaCount = deltaFrames.sum();
+        long binaryCount = binaryFrames.sum();
+        long interestCount = interestFrames.sum();
+        return String.format(
+            "full: frames=%d bytes=%d avg=%.0fB | delta: frames=%d bytes=%d avg=%.0fB fallbacks=%d (%.0f%% of full)"
+                + " | binary: frames=%d bytes=%d avg=%.0fB (%.0f%% of JSON full)"
+                + " | interest: frames=%d avg=%.0fB (%.0f%% of world)",
+            fullCount, fullBytes.sum(), fullCount == 0 ? 0.0 : (double) fullBytes.sum() / fullCount,
+            deltaCount, deltaBytes.sum(), deltaCount == 0 ? 0.0 : (double) deltaBytes.sum() / deltaCount,
+            deltaFallbacks.sum(), getDeltaRatio() * 100,
+            binaryCount, binaryBytes.sum(), binaryCount == 0 ? 0.0 : (double) binaryBytes.sum() / binaryCount,
+            getBinaryRatio() * 100,
+            interestCount, interestCount == 0 ? 0.0 : (double) interestBytes.sum() / interestCount,
+            getInterestRatio() * 100);
+    }
+}
@@ -0,0 +1,33 @@
+package com.shootergame.space;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.shootergame.game.input.PlayerInput;
+
+/**
+ * The coordination operations one game uses: player membership and the input
+ * queue between network threads and the world's tick. Implementations must be
+ * safe for many concurrent producers and one consumer draining inputs.
+ */
+public interface GameSpace {
+
+    void putPlayer(int playerId) throws InterruptedException;
+
+    /**
+     * Remove every registration of a player; returns false if there was none.
+     */
+    boolean removePlayer(int playerId) throws InterruptedException;
+
+    /**
+     * Registered players, in no particular order; a player registered twice appears twice.
+     */
+    List<Integer> players() throws InterruptedException;
+
+    void putInput(PlayerInput input) throws InterruptedException;
+
+    /**
+     * Hand at most {@code max} queued inputs to the consumer in arrival order.
+     */
+    int drainInputs(int max, Consumer<PlayerInput> consumer) throws InterruptedException;
+}
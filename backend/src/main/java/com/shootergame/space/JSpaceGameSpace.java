@@ -0,0 +1,75 @@
+package com.shootergame.space;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.jspace.ActualField;
+import org.jspace.FormalField;
+import org.jspace.Space;
+
+import com.shootergame.game.input.PlayerInput;
+
+/**
+ * Game space backed by a jSpace {@link Space}, holding the classic tuples:
+ * ("player", playerId) and ("input", playerId, action, payload, step).
+ */
+public class JSpaceGameSpace implements GameSpace {
+
+    public static final String PLAYER = "player";
+    public static final String INPUT = "input";
+
+    private final Space space;
+
+    public JSpaceGameSpace(Space space) {
+        this.space = space;
+    }
+
+    public Space getSpace() {
+        return space;
+    }
+
+    @Override
+    public void putPlayer(int playerId) throws InterruptedException {
+        space.put(PLAYER, playerId);
+    }
+
+    @Override
+    public boolean removePlayer(int playerId) throws InterruptedException {
+        boolean removed = false;
+        // A player registered twice has two tuples; take them all
+        while (space.getp(new ActualField(PLAYER), new ActualField(playerId)) != null) {
+            removed = true;
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Integer> players() throws InterruptedException {
+        List<Object[]> tuples = space.queryAll(new ActualField(PLAYER), new FormalField(Integer.class));
+        List<Integer> ids = new ArrayList<>(tuples.size());
+        for (Object[] t : tuples) {
+            ids.add((Integer) t[1]);
+        }
+        return ids;
+    }
+
+    @Override
+    public void putInput(PlayerInput input) throws InterruptedException {
+        space.put(INPUT, input.playerId(), input.action(), input.payload() != null ? input.payload() : "",
+            input.step());
+    }
+
+    @Override
+    public int drainInputs(int max, Consumer<PlayerInput> consumer) throws InterruptedException {
+        int n = 0;
+        Object[] t;
+        // getp returns the oldest match, so inputs come out in arrival order
+        while (n < max && (t = space.getp(new ActualField(INPUT), new FormalField(Integer.class),
+                new FormalField(String.class), new FormalField(String.class), new FormalField(Long.class))) != null) {
+            consumer.accept(new PlayerInput((Integer) t[1], (String) t[2], (String) t[3], (Long) t[4]));
+            n++;
+        }
+        return n;
+    }
+}
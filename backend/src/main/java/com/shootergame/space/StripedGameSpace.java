@@ -0,0 +1,86 @@
+package com.shootergame.space;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import com.shootergame.game.input.PlayerInput;
+
+/**
+ * In-process game space with typed storage: no tuples, no template matching.
+ * Players are split over lock stripes by id, so registrations for different
+ * players rarely contend; inputs go through a lock-free queue.
+ */
+public class StripedGameSpace implements GameSpace {
+
+    private static final int STRIPES = 16; // power of two
+
+    private final Object[] locks = new Object[STRIPES];
+    // Registration count per player, per stripe
+    @SuppressWarnings("unchecked")
+    private final Map<Integer, Integer>[] stripes = new Map[STRIPES];
+    private final Queue<PlayerInput> inputs = new ConcurrentLinkedQueue<>();
+
+    public StripedGameSpace() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+            stripes[i] = new HashMap<>();
+        }
+    }
+
+    private static int stripe(int playerId) {
+        int h = playerId * 0x9E3779B9; // spread sequential ids
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    @Override
+    public void putPlayer(int playerId) {
+        int s = stripe(playerId);
+        synchronized (locks[s]) {
+            stripes[s].merge(playerId, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public boolean removePlayer(int playerId) {
+        int s = stripe(playerId);
+        synchronized (locks[s]) {
+            return stripes[s].remove(playerId) != null;
+        }
+    }
+
+    @Override
+    public List<Integer> players() {
+        List<Integer> ids = new ArrayList<>();
+        for (int s = 0; s < STRIPES; s++) {
+            synchronized (locks[s]) {
+                for (Map.Entry<Integer, Integer> e : stripes[s].entrySet()) {
+                    for (int i = 0; i < e.getValue(); i++) {
+                        ids.add(e.getKey());
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void putInput(PlayerInput input) {
+        inputs.offer(input);
+    }
+
+    @Override
+    public int drainInputs(int max, Consumer<PlayerInput> consumer) {
+        int n = 0;
+        PlayerInput input;
+        while (n < max && (input = inputs.poll()) != null) {
+            consumer.accept(input);
+            n++;
+        }
+        return n;
+    }
+}
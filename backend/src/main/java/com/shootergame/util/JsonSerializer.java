@@ -2,10 +2,14 @@ package com.shootergame.util;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.StateSnapshot;
 
 /**
  * Central place for all JSON serialization/deserialization.
  * Wraps Gson and avoids creating instances throughout the codebase.
+ * State snapshots, sent every tick, skip Gson and are written by
+ * {@link SnapshotJsonWriter}, with the same output.
  */
 public class JsonSerializer {
 
@@ -15,6 +19,36 @@ public class JsonSerializer {
      * Serialize an object to JSON string.
      */
     public String toJson(Object obj) {
+        if (obj instanceof StateSnapshot || obj instanceof DeltaSnapshot) {
+            StringBuilder out = new StringBuilder(1024);
+            toJson(obj, out);
+            return out.toString();
+        }
+        return gson.toJson(obj);
+    }
+
+    /**
+     * Serialize an object as JSON into an existing buffer.
+     * Snapshots appended to a StringBuilder allocate nothing once it has grown.
+     */
+    public void toJson(Object obj, Appendable out) {
+        if (out instanceof StringBuilder sb) {
+            if (obj instanceof StateSnapshot state) {
+                SnapshotJsonWriter.write(state, sb);
+                return;
+            }
+            if (obj instanceof DeltaSnapshot delta) {
+                SnapshotJsonWriter.write(delta, sb);
+                return;
+            }
+        }
+        gson.toJson(obj, out);
+    }
+
+    /**
+     * Serialize with Gson alone, bypassing the snapshot writer.
+     */
+    public String toJsonReflective(Object obj) {
         return gson.toJson(obj);
     }
 
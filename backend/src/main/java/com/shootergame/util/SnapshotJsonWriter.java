@@ -0,0 +1,190 @@
+package com.shootergame.util;
+
+import java.util.List;
+
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.StateSnapshot;
+
+/**
+ * Writes "state" and "state_delta" messages straight into a StringBuilder,
+ * without reflection or intermediate objects. The output is exactly what the
+ * default Gson produces for the same records: keys in component order, null
+ * fields left out, numbers as Double.toString / Long.toString, and strings
+ * escaped HTML-safe. Non-finite numbers are rejected, as Gson does.
+ */
+final class SnapshotJsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SnapshotJsonWriter() {}
+
+    static void write(StateSnapshot s, StringBuilder out) {
+        out.append('{');
+        boolean first = string(out, true, "type", s.type());
+        first = players(out, first, s.players());
+        first = projectiles(out, first, s.projectiles());
+        first = powerups(out, first, s.powerups());
+        first = string(out, first, "map", s.map());
+        name(out, first, "running").append(s.running());
+        out.append('}');
+    }
+
+    static void write(DeltaSnapshot d, StringBuilder out) {
+        out.append('{');
+        boolean first = string(out, true, "type", d.type());
+        name(out, first, "seq").append(d.seq());
+        name(out, false, "baseline").append(d.baseline());
+        first = players(out, false, d.players());
+        first = ids(out, first, "removedPlayers", d.removedPlayers());
+        first = projectiles(out, first, d.projectiles());
+        first = ids(out, first, "removedProjectiles", d.removedProjectiles());
+        first = powerups(out, first, d.powerups());
+        first = ids(out, first, "removedPowerups", d.removedPowerups());
+        first = string(out, first, "map", d.map());
+        name(out, first, "running").append(d.running());
+        out.append('}');
+    }
+
+    // Each field writer takes and returns whether nothing has been written to the object yet
+
+    private static boolean players(StringBuilder out, boolean first, List<PlayerView> players) {
+        if (players == null) {
+            return first;
+        }
+        name(out, first, "players").append('[');
+        for (int i = 0; i < players.size(); i++) {
+            if (i > 0) out.append(',');
+            PlayerView p = players.get(i);
+            if (p == null) {
+                out.append("null");
+                continue;
+            }
+            out.append("{\"id\":").append(p.id());
+            number(out.append(",\"x\":"), p.x());
+            number(out.append(",\"y\":"), p.y());
+            string(out, false, "color", p.color());
+            out.append(",\"lives\":").append(p.lives());
+            number(out.append(",\"invulnerableTime\":"), p.invulnerableTime());
+            out.append(",\"hasSpeedBoost\":").append(p.hasSpeedBoost());
+            number(out.append(",\"speedBoostTimer\":"), p.speedBoostTimer());
+            out.append('}');
+        }
+        out.append(']');
+        return false;
+    }
+
+    private static boolean projectiles(StringBuilder out, boolean first, List<ProjectileView> projectiles) {
+        if (projectiles == null) {
+            return first;
+        }
+        name(out, first, "projectiles").append('[');
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (i > 0) out.append(',');
+            ProjectileView p = projectiles.get(i);
+            if (p == null) {
+                out.append("null");
+                continue;
+            }
+            out.append("{\"id\":").append(p.id());
+            number(out.append(",\"x\":"), p.x());
+            number(out.append(",\"y\":"), p.y());
+            number(out.append(",\"vx\":"), p.vx());
+            number(out.append(",\"vy\":"), p.vy());
+            out.append('}');
+        }
+        out.append(']');
+        return false;
+    }
+
+    private static boolean powerups(StringBuilder out, boolean first, List<PowerupView> powerups) {
+        if (powerups == null) {
+            return first;
+        }
+        name(out, first, "powerups").append('[');
+        for (int i = 0; i < powerups.size(); i++) {
+            if (i > 0) out.append(',');
+            PowerupView p = powerups.get(i);
+            if (p == null) {
+                out.append("null");
+                continue;
+            }
+            out.append("{\"id\":").append(p.id());
+            number(out.append(",\"x\":"), p.x());
+            number(out.append(",\"y\":"), p.y());
+            string(out, false, "type", p.type());
+            out.append(",\"active\":").append(p.active());
+            out.append('}');
+        }
+        out.append(']');
+        return false;
+    }
+
+    private static boolean ids(StringBuilder out, boolean first, String name, List<Integer> ids) {
+        if (ids == null) {
+            return first;
+        }
+        name(out, first, name).append('[');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) out.append(',');
+            Integer id = ids.get(i);
+            if (id == null) {
+                out.append("null");
+            } else {
+                out.append(id.intValue());
+            }
+        }
+        out.append(']');
+        return false;
+    }
+
+    private static StringBuilder name(StringBuilder out, boolean first, String name) {
+        if (!first) out.append(',');
+        return out.append('"').append(name).append("\":");
+    }
+
+    private static boolean string(StringBuilder out, boolean first, String name, String value) {
+        if (value == null) {
+            return first;
+        }
+        name(out, first, name).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\f' -> out.append("\\f");
+                case '<', '>', '&', '=', '\'', '\u2028', '\u2029' -> unicode(out, c);
+                default -> {
+                    if (c < 0x20) {
+                        unicode(out, c);
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+        return false;
+    }
+
+    private static void unicode(StringBuilder out, char c) {
+        out.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xf])
+            .append(HEX[(c >> 4) & 0xf]).append(HEX[c & 0xf]);
+    }
+
+    private static void number(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(value
+                + " is not a valid double value as per JSON specification. To override this"
+                + " behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
+        }
+        out.append(value);
+    }
+}
@@ -0,0 +1,114 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.snapshot.AreaOfInterest;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.InterestIndex;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.StateSnapshot;
+
+public class AreaOfInterestTest {
+
+    // Open 1120x960 px map
+    private static final CollisionMap MAP = new CollisionMap(70, 60, 16, 16, new long[(70 * 60 + 63) / 64]);
+
+    private final InterestIndex index = new InterestIndex(200.0, 50.0);
+    private final AreaOfInterest interest = new AreaOfInterest();
+
+    @Test
+    public void onlyEntitiesAroundThePlayerAreSent() {
+        StateSnapshot state = new StateSnapshot(StateSnapshot.TYPE,
+            List.of(player(1, 100, 100), player(2, 250, 280), player(3, 900, 800)),
+            List.of(projectile(10, 120, 90), projectile(11, 700, 100)),
+            List.of(powerup(20, 300, 50), powerup(21, 100, 600)),
+            "map2", true);
+
+        StateSnapshot view = filter(1, state, 1);
+
+        assertEquals(List.of(1, 2), playerIds(view));
+        assertEquals(List.of(10), view.projectiles().stream().map(ProjectileView::id).toList());
+        assertEquals(List.of(20), view.powerups().stream().map(PowerupView::id).toList());
+        assertEquals("map2", view.map());
+        assertTrue(view.running());
+    }
+
+    @Test
+    public void graceBandKeepsEntitiesUntilTheyAreWellOut() {
+        assertEquals(List.of(1, 2), playerIds(filter(1, twoPlayers(480), 1)));
+        // In the grace band: stays
+        assertEquals(List.of(1, 2), playerIds(filter(2, twoPlayers(530), 1)));
+        // Past it: gone, and back in the band is not enough to return
+        assertEquals(List.of(1), playerIds(filter(3, twoPlayers(560), 1)));
+        assertEquals(List.of(1), playerIds(filter(4, twoPlayers(530), 1)));
+        assertEquals(List.of(1, 2), playerIds(filter(5, twoPlayers(495), 1)));
+    }
+
+    @Test
+    public void deltasAreTakenAgainstWhatTheClientWasSent() {
+        filter(1, twoPlayers(480), 1);
+        StateSnapshot view = filter(2, twoPlayers(600), 1);
+
+        DeltaSnapshot delta = DeltaSnapshot.between(1, interest.sent(1), 2, view);
+        assertEquals(List.of(2), delta.removedPlayers(), "leaving the view reads as a removal");
+        assertTrue(delta.players().isEmpty());
+        assertSame(view, interest.sent(2));
+        assertNull(interest.sent(3));
+    }
+
+    @Test
+    public void viewStaysWhereThePlayerWasLastSeen() {
+        StateSnapshot before = twoPlayers(480);
+        // Nobody to center on yet: the whole world
+        assertEquals(List.of(2), playerIds(filter(1, withoutPlayer1(before), 1)));
+
+        filter(2, before, 1);
+        assertEquals(List.of(2), playerIds(filter(3, withoutPlayer1(twoPlayers(490)), 1)));
+        assertEquals(List.of(), playerIds(filter(4, withoutPlayer1(twoPlayers(800)), 1)));
+    }
+
+    private StateSnapshot filter(long seq, StateSnapshot state, int playerId) {
+        index.index(state, MAP);
+        return interest.filter(seq, state, index, playerId);
+    }
+
+    // Player 1 at (300, 300), player 2 level with it at x
+    private static StateSnapshot twoPlayers(double x) {
+        return new StateSnapshot(StateSnapshot.TYPE,
+            List.of(player(1, 300, 300), player(2, x, 300)), List.of(), List.of(), "map2", true);
+    }
+
+    private static StateSnapshot withoutPlayer1(StateSnapshot s) {
+        return new StateSnapshot(s.type(), s.players().subList(1, 2), s.projectiles(), s.powerups(),
+            s.map(), s.running());
+    }
+
+    private static List<Integer> playerIds(StateSnapshot s) {
+        List<Integer> ids = new ArrayList<>();
+        for (PlayerView p : s.players()) {
+            ids.add(p.id());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static PlayerView player(int id, double x, double y) {
+        return new PlayerView(id, x, y, "green", 3, 0.0, false, 0.0);
+    }
+
+    private static ProjectileView projectile(int id, double x, double y) {
+        return new ProjectileView(id, x, y, 400.0, 0.0);
+    }
+
+    private static PowerupView powerup(int id, double x, double y) {
+        return new PowerupView(id, x, y, "speed", true);
+    }
+}
@@ -0,0 +1,197 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.framing.Framedata;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.BinarySnapshotEncoder;
+import com.shootergame.network.FrameEncoder;
+import com.shootergame.util.JsonSerializer;
+
+public class BinarySnapshotTest {
+
+    // Open 1120x960 px map
+    private static final CollisionMap MAP = new CollisionMap(70, 60, 16, 16, new long[(70 * 60 + 63) / 64]);
+
+    // Half a fixed-point step, plus rounding
+    private static final double POSITION_TOLERANCE = 1120.0 / 65535 / 2 + 1e-9;
+
+    private final BinarySnapshotEncoder encoder = new BinarySnapshotEncoder();
+
+    @Test
+    public void fullSnapshotDecodesWithinQuantization() {
+        StateSnapshot state = new StateSnapshot(StateSnapshot.TYPE,
+            List.of(new PlayerView(1, 100.37, 200.91, "red", 3, 1.26, true, 4.04),
+                new PlayerView(70000, 1119.99, 0.01, "purple", 0, 0.0, false, 0.0)),
+            List.of(new ProjectileView(5, 512.5, 480.25, 399.6, -400.0)),
+            List.of(new PowerupView(9, 64.0, 64.0, "spreadShot", false)),
+            "map2", true);
+
+        Framedata frame = encoder.encode(state, MAP);
+        assertEquals(Opcode.BINARY, frame.getOpcode());
+        Decoded d = decode(frame);
+
+        assertEquals(BinarySnapshotEncoder.KIND_STATE, d.kind);
+        assertTrue(d.running);
+        assertEquals("map2", d.map);
+        assertEquals(2, d.players.size());
+        double[] p1 = d.players.get(0);
+        assertEquals(1, (long) p1[0]);
+        assertEquals(100.37, p1[1], POSITION_TOLERANCE);
+        assertEquals(200.91, p1[2], POSITION_TOLERANCE);
+        assertEquals(BinarySnapshotEncoder.COLORS.indexOf("red"), (int) p1[3]);
+        assertEquals(3, (int) p1[4]);
+        assertEquals(3, (int) p1[5], "invulnerable and speed boost flags");
+        assertEquals(13, (int) p1[6]);
+        assertEquals(40, (int) p1[7]);
+        double[] p2 = d.players.get(1);
+        assertEquals(70000, (long) p2[0]);
+        assertEquals(BinarySnapshotEncoder.UNKNOWN, (int) p2[3]);
+        assertEquals(1119.99, p2[1], POSITION_TOLERANCE);
+
+        double[] shot = d.projectiles.get(0);
+        assertEquals(5, (long) shot[0]);
+        assertEquals(512.5, shot[1], POSITION_TOLERANCE);
+        assertEquals(400, (int) shot[3]);
+        assertEquals(-400, (int) shot[4]);
+
+        double[] powerup = d.powerups.get(0);
+        assertEquals(BinarySnapshotEncoder.POWERUP_TYPES.indexOf("spreadShot"), (int) powerup[3]);
+        assertEquals(0, (int) powerup[4]);
+        assertEquals(frame.getPayloadData().remaining(), encoder.lastPayloadSize());
+    }
+
+    @Test
+    public void deltaCarriesSeqBaselineAndRemovals() {
+        StateSnapshot base = new StateSnapshot(StateSnapshot.TYPE,
+            List.of(player(1, 100), player(2, 200)),
+            List.of(new ProjectileView(7, 10, 10, 0, 400)),
+            List.of(), "map2", true);
+        StateSnapshot next = new StateSnapshot(StateSnapshot.TYPE,
+            List.of(player(1, 150)), List.of(), List.of(), "map2", false);
+
+        Decoded d = decode(encoder.encode(DeltaSnapshot.between(41, base, 42, next), MAP));
+
+        assertEquals(BinarySnapshotEncoder.KIND_DELTA, d.kind);
+        assertFalse(d.running);
+        assertEquals(42, d.seq);
+        assertEquals(41, d.baseline);
+        assertEquals(1, d.players.size());
+        assertEquals(150.0, d.players.get(0)[1], POSITION_TOLERANCE);
+        assertEquals(List.of(2L), d.removedPlayers);
+        assertEquals(List.of(7L), d.removedProjectiles);
+        assertEquals(List.of(), d.removedPowerups);
+    }
+
+    @Test
+    public void binaryIsSmallerThanJsonAndGrowsItsBuffer() {
+        List<PlayerView> players = new ArrayList<>();
+        List<ProjectileView> projectiles = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            players.add(player(i, i * 2.5));
+            projectiles.add(new ProjectileView(1000 + i, i, 500 - i, 400.0, 0.0));
+        }
+        StateSnapshot state = new StateSnapshot(StateSnapshot.TYPE, players, projectiles, List.of(), "map2", true);
+
+        Decoded d = decode(encoder.encode(state, MAP));
+        assertEquals(400, d.players.size());
+        assertEquals(400, d.projectiles.size());
+        assertEquals(1399, (long) d.projectiles.get(399)[0]);
+
+        FrameEncoder json = new FrameEncoder();
+        json.encodeJson(new JsonSerializer(), state);
+        assertTrue(encoder.lastPayloadSize() * 4 < json.lastPayloadSize(),
+            encoder.lastPayloadSize() + " vs " + json.lastPayloadSize());
+    }
+
+    private static PlayerView player(int id, double x) {
+        return new PlayerView(id, x, 300, "green", 3, 0.0, false, 0.0);
+    }
+
+    /**
+     * Reads the layout documented on BinarySnapshotEncoder, as a client would.
+     * Entities are rows of numbers with positions scaled back to pixels.
+     */
+    private static Decoded decode(Framedata frame) {
+        ByteBuffer in = frame.getPayloadData().duplicate();
+        Decoded d = new Decoded();
+        d.kind = in.get() & 0xff;
+        d.running = (in.get() & 1) != 0;
+        boolean delta = d.kind == BinarySnapshotEncoder.KIND_DELTA;
+        if (delta) {
+            d.seq = varint(in);
+            d.baseline = varint(in);
+        }
+        byte[] id = new byte[in.get() & 0xff];
+        in.get(id);
+        d.map = new String(id, StandardCharsets.UTF_8);
+        int width = in.getShort() & 0xffff;
+        int height = in.getShort() & 0xffff;
+
+        long count = varint(in);
+        for (int i = 0; i < count; i++) {
+            d.players.add(new double[] {varint(in), x(in, width), x(in, height),
+                in.get() & 0xff, in.get() & 0xff, in.get() & 0xff, in.get() & 0xff, in.get() & 0xff});
+        }
+        if (delta) ids(in, d.removedPlayers);
+        count = varint(in);
+        for (int i = 0; i < count; i++) {
+            d.projectiles.add(new double[] {varint(in), x(in, width), x(in, height), in.getShort(), in.getShort()});
+        }
+        if (delta) ids(in, d.removedProjectiles);
+        count = varint(in);
+        for (int i = 0; i < count; i++) {
+            d.powerups.add(new double[] {varint(in), x(in, width), x(in, height), in.get() & 0xff, in.get() & 0xff});
+        }
+        if (delta) ids(in, d.removedPowerups);
+        assertFalse(in.hasRemaining(), "trailing bytes");
+        return d;
+    }
+
+    private static double x(ByteBuffer in, int extent) {
+        return (in.getShort() & 0xffff) / 65535.0 * extent;
+    }
+
+    private static void ids(ByteBuffer in, List<Long> out) {
+        long count = varint(in);
+        for (int i = 0; i < count; i++) {
+            out.add(varint(in));
+        }
+    }
+
+    private static long varint(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7f) << shift;
+            if (b >= 0) return v;
+        }
+    }
+
+    private static final class Decoded {
+        int kind;
+        boolean running;
+        long seq;
+        long baseline;
+        String map;
+        final List<double[]> players = new ArrayList<>();
+        final List<double[]> projectiles = new ArrayList<>();
+        final List<double[]> powerups = new ArrayList<>();
+        final List<Long> removedPlayers = new ArrayList<>();
+        final List<Long> removedProjectiles = new ArrayList<>();
+        final List<Long> removedPowerups = new ArrayList<>();
+    }
+}
@@ -0,0 +1,83 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.java_websocket.WebSocket;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.config.SharedConfig;
+import com.shootergame.network.ClientRegistry;
+
+public class ClientRegistryTest {
+
+    private final ClientRegistry registry = new ClientRegistry();
+
+    @Test
+    public void socketsAreIndexedByGame() {
+        WebSocket a = socket();
+        WebSocket b = socket();
+        WebSocket c = socket();
+        registry.registerConnection(a);
+        registry.register(a, "g1", 1);
+        registry.register(b, "g1", 2);
+        registry.register(c, "g2", 3);
+
+        assertEquals(List.of(a, b), registry.getSocketsForGame("g1"));
+        assertEquals(List.of(c), registry.getSocketsForGame("g2"));
+        assertTrue(registry.getSocketsForGame("g3").isEmpty());
+
+        // Moving to another game leaves the old one
+        registry.register(b, "g2", 2);
+        assertEquals(List.of(a), registry.getSocketsForGame("g1"));
+        assertEquals(List.of(c, b), registry.getSocketsForGame("g2"));
+
+        registry.unregister(a);
+        registry.unregister(c);
+        assertTrue(registry.getSocketsForGame("g1").isEmpty());
+        assertEquals(List.of(b), registry.getSocketsForGame("g2"));
+    }
+
+    @Test
+    public void fullGameRejectsNewcomersButNotReturningClients() {
+        int max = SharedConfig.getInt("MAX_PLAYERS", 6);
+        WebSocket first = socket();
+        registry.register(first, "full", 1);
+        for (int i = 2; i <= max; i++) {
+            registry.register(socket(), "full", i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> registry.register(socket(), "full", 99));
+        registry.register(first, "full", 1, true);
+        assertEquals(max, registry.getSocketsForGame("full").size());
+        assertTrue(registry.wantsDeltaSnapshots(first));
+    }
+
+    @Test
+    public void laterAckReplacesOneBeyondTheHistory() {
+        WebSocket a = socket();
+        registry.register(a, "acks", 1, true);
+        registry.acknowledge(a, 5);
+        registry.acknowledge(a, 1_000_000);
+        assertEquals(1_000_000, registry.getAckedSeq(a));
+
+        registry.acknowledge(a, 6);
+        assertEquals(6, registry.getAckedSeq(a), "a real ack after a bogus one is used again");
+    }
+
+    private static WebSocket socket() {
+        return (WebSocket) Proxy.newProxyInstance(WebSocket.class.getClassLoader(),
+            new Class<?>[] {WebSocket.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,328 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.jspace.ActualField;
+import org.jspace.FormalField;
+import org.jspace.SequentialSpace;
+import org.jspace.Space;
+import org.jspace.SpaceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.cluster.ClusterFrontend;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+
+/**
+ * Runs two simulation nodes as separate JVMs on localhost and drives games on
+ * both through a front-end in this JVM.
+ */
+public class ClusterIntegrationTest {
+
+    private final List<Process> nodes = new ArrayList<>();
+    private final List<Runnable> cleanups = new ArrayList<>();
+    private ClusterFrontend frontend;
+
+    @AfterEach
+    public void tearDown() {
+        if (frontend != null) frontend.stop();
+        for (Process p : nodes) {
+            p.destroyForcibly();
+        }
+        cleanups.forEach(Runnable::run);
+    }
+
+    @Test
+    public void gamesRunOnTheNodeTheyAreRoutedTo() throws Exception {
+        List<String> addresses = List.of(startNode(), startNode());
+        Recorder out = new Recorder();
+        frontend = new ClusterFrontend(addresses, out);
+        String gameA = gameOn(addresses.get(0));
+        String gameB = gameOn(addresses.get(1));
+
+        frontend.submitMembership(gameA, MembershipEvent.join(1));
+        frontend.submitMembership(gameB, MembershipEvent.join(2));
+        frontend.submitInput(gameA, new PlayerInput(1, "START", ""));
+        frontend.submitInput(gameB, new PlayerInput(2, "RIGHT", ""));
+
+        StateSnapshot a = out.awaitState(gameA, s -> hasPlayer(s, 1));
+        assertFalse(hasPlayer(a, 2), "games on different nodes never share players");
+        assertTrue(out.awaitMessage(gameA, m -> m.contains("\"game_start\"")), "messages cross back too");
+
+        double startX = out.awaitState(gameB, s -> hasPlayer(s, 2)).players().get(0).x();
+        StateSnapshot moved = out.awaitState(gameB, s -> hasPlayer(s, 2) && s.players().get(0).x() > startX);
+        assertFalse(hasPlayer(moved, 1));
+
+        frontend.submitMembership(gameA, MembershipEvent.leave(1));
+        out.awaitState(gameA, s -> !hasPlayer(s, 1));
+    }
+
+    @Test
+    public void liveGameMigratesWithAShortPause() throws Exception {
+        List<String> addresses = List.of(startNode(), startNode());
+        Recorder out = new Recorder();
+        frontend = new ClusterFrontend(addresses, out);
+        String game = gameOn(addresses.get(0));
+        String target = addresses.get(1);
+
+        frontend.submitMembership(game, MembershipEvent.join(1));
+        frontend.submitMembership(game, MembershipEvent.join(2));
+        frontend.submitInput(game, new PlayerInput(1, "START", ""));
+        frontend.submitInput(game, new PlayerInput(1, "RIGHT", ""));
+        frontend.submitInput(game, new PlayerInput(2, "FIRE", "UP"));
+        StateSnapshot before = out.awaitState(game, s -> s.running() && s.players().size() == 2);
+
+        int statesBefore = out.states(game).size();
+        long held = frontend.migrate(game, target);
+        assertTrue(held < TimeUnit.MILLISECONDS.toNanos(100), "paused for " + held / 1_000_000.0 + " ms");
+        assertEquals(target, frontend.nodeFor(game));
+
+        // The target picks up inputs, and the match carries on where it was
+        double y = player(before, 2).y();
+        frontend.submitInput(game, new PlayerInput(2, "DOWN", ""));
+        StateSnapshot after = out.awaitState(game, statesBefore, s -> hasPlayer(s, 2) && player(s, 2).y() > y);
+        assertTrue(after.running());
+        assertEquals(before.map(), after.map());
+        for (int id = 1; id <= 2; id++) {
+            assertEquals(player(before, id).color(), player(after, id).color());
+            assertEquals(3, player(after, id).lives());
+        }
+
+        // Across the move: one snapshot sequence, players never jump back
+        List<StateSnapshot> running = new ArrayList<>();
+        for (StateSnapshot s : out.states(game)) {
+            if (s.running() && s.players().size() == 2) running.add(s);
+        }
+        for (int i = 1; i < running.size(); i++) {
+            assertTrue(player(running.get(i), 1).x() >= player(running.get(i - 1), 1).x());
+            assertTrue(player(running.get(i), 2).y() >= player(running.get(i - 1), 2).y());
+        }
+        assertTrue(out.sequencesIncrease(game));
+    }
+
+    @Test
+    public void failedImportResumesTheGameOnItsNode() throws Exception {
+        String source = startNode();
+        String broken = startFailingImportNode();
+        Recorder out = new Recorder();
+        frontend = new ClusterFrontend(List.of(source, broken), out);
+        String game = gameOn(source);
+
+        frontend.submitMembership(game, MembershipEvent.join(1));
+        frontend.submitMembership(game, MembershipEvent.join(2));
+        frontend.submitInput(game, new PlayerInput(1, "START", ""));
+        StateSnapshot before = out.awaitState(game, s -> s.running() && s.players().size() == 2);
+
+        Exception failure = assertThrows(Exception.class, () -> frontend.migrate(game, broken));
+        assertTrue(failure.getMessage().contains("no room"), failure.getMessage());
+        assertEquals(source, frontend.nodeFor(game));
+        assertTrue(frontend.describe().contains("node=" + source));
+
+        int statesBefore = out.states(game).size();
+        double y = player(before, 2).y();
+        frontend.submitInput(game, new PlayerInput(2, "DOWN", ""));
+        StateSnapshot after = out.awaitState(game, statesBefore, s -> hasPlayer(s, 2) && player(s, 2).y() > y);
+        assertTrue(after.running(), "the match carries on where it was");
+        assertTrue(out.sequencesIncrease(game));
+    }
+
+    @Test
+    public void lostGameIsReportedInsteadOfReopened() throws Exception {
+        List<String> addresses = List.of(startNode());
+        Recorder out = new Recorder();
+        frontend = new ClusterFrontend(addresses, out);
+        String game = gameOn(addresses.get(0));
+
+        frontend.submitMembership(game, MembershipEvent.join(1));
+        frontend.submitMembership(game, MembershipEvent.join(2));
+        frontend.submitInput(game, new PlayerInput(1, "START", ""));
+        out.awaitState(game, s -> hasPlayer(s, 1) && hasPlayer(s, 2));
+        nodes.get(0).destroyForcibly().waitFor();
+        frontend.submitInput(game, new PlayerInput(1, "RIGHT", ""));
+
+        assertTrue(out.awaitMessage(game, m -> m.contains("\"error\"") && m.contains("Game lost")));
+        assertTrue(out.awaitMessage(game, m -> m.contains("\"game_over\"")));
+        int states = out.states(game).size();
+        frontend.submitInput(game, new PlayerInput(1, "LEFT", ""));
+        assertEquals("", frontend.describe(), "an input does not reopen a lost game");
+        Thread.sleep(200);
+        assertEquals(states, out.states(game).size());
+
+        // A player leaving meanwhile is not joined again when a new join reopens it
+        frontend.submitMembership(game, MembershipEvent.leave(2));
+        startNode(port(addresses.get(0)));
+        frontend.submitMembership(game, MembershipEvent.join(3));
+        StateSnapshot reopened = out.awaitState(game, states, s -> hasPlayer(s, 3) && hasPlayer(s, 1));
+        assertFalse(hasPlayer(reopened, 2));
+        Thread.sleep(200);
+        for (StateSnapshot s : out.states(game).subList(states, out.states(game).size())) {
+            assertFalse(hasPlayer(s, 2), "the departed player never comes back");
+        }
+    }
+
+    private static PlayerView player(StateSnapshot s, int id) {
+        for (PlayerView p : s.players()) {
+            if (p.id() == id) return p;
+        }
+        throw new AssertionError("no player " + id);
+    }
+
+    private String gameOn(String node) {
+        for (int i = 0; ; i++) {
+            if (frontend.nodeFor("game-" + i).equals(node)) return "game-" + i;
+        }
+    }
+
+    private static boolean hasPlayer(StateSnapshot s, int id) {
+        for (PlayerView p : s.players()) {
+            if (p.id() == id) return true;
+        }
+        return false;
+    }
+
+    private static int port(String address) {
+        return Integer.parseInt(address.substring(address.lastIndexOf(':') + 1));
+    }
+
+    private String startNode() throws Exception {
+        int port;
+        try (ServerSocket ss = new ServerSocket(0)) {
+            port = ss.getLocalPort();
+        }
+        return startNode(port);
+    }
+
+    private String startNode(int port) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process p = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "com.shootergame.Main", "node", String.valueOf(port))
+            .redirectErrorStream(true)
+            .start();
+        nodes.add(p);
+
+        // Keep draining the node's log so it never blocks on a full pipe
+        CountDownLatch ready = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    if (line.contains("Simulation node ready")) ready.countDown();
+                }
+            } catch (Exception ignored) {
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        assertTrue(ready.await(20, TimeUnit.SECONDS), "node on port " + port + " did not start");
+        return "127.0.0.1:" + port;
+    }
+
+    /**
+     * A node in this JVM that answers every control request except IMPORT,
+     * which it fails as a node out of resources would.
+     */
+    private String startFailingImportNode() throws Exception {
+        int port;
+        try (ServerSocket ss = new ServerSocket(0)) {
+            port = ss.getLocalPort();
+        }
+        SpaceRepository repository = new SpaceRepository();
+        Space control = new SequentialSpace();
+        repository.add("control", control);
+        repository.addGate("tcp://127.0.0.1:" + port + "/?keep");
+        Thread server = new Thread(() -> {
+            try {
+                while (true) {
+                    Object[] request = control.get(new ActualField("request"), new FormalField(String.class),
+                        new FormalField(String.class), new FormalField(String.class), new FormalField(String.class));
+                    boolean fail = "import".equals(request[2]);
+                    control.put("reply", request[1], fail ? "error" : "ok", fail ? "no room for game" : "");
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+        cleanups.add(() -> {
+            server.interrupt();
+            repository.shutDown();
+        });
+        return "127.0.0.1:" + port;
+    }
+
+    private static final class Recorder implements GameBroadcaster {
+        private final Map<String, List<StateSnapshot>> states = new ConcurrentHashMap<>();
+        private final Map<String, List<String>> messages = new ConcurrentHashMap<>();
+        private final Map<String, List<Long>> seqs = new ConcurrentHashMap<>();
+
+        @Override
+        public void broadcastToGame(String gameId, String message) {
+            messages.computeIfAbsent(gameId, k -> new CopyOnWriteArrayList<>()).add(message);
+        }
+
+        @Override
+        public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {
+            assertSame(state, history.get(seq));
+            states.computeIfAbsent(gameId, k -> new CopyOnWriteArrayList<>()).add(state);
+            seqs.computeIfAbsent(gameId, k -> new CopyOnWriteArrayList<>()).add(seq);
+        }
+
+        List<StateSnapshot> states(String gameId) {
+            return states.getOrDefault(gameId, List.of());
+        }
+
+        boolean sequencesIncrease(String gameId) {
+            List<Long> list = seqs.getOrDefault(gameId, List.of());
+            for (int i = 1; i < list.size(); i++) {
+                if (list.get(i) != list.get(i - 1) + 1) return false;
+            }
+            return true;
+        }
+
+        StateSnapshot awaitState(String gameId, Predicate<StateSnapshot> condition) throws InterruptedException {
+            return awaitState(gameId, 0, condition);
+        }
+
+        // Only states from index {@code seen} on, such as those sent after a point in the test
+        StateSnapshot awaitState(String gameId, int seen, Predicate<StateSnapshot> condition)
+                throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                List<StateSnapshot> list = states.getOrDefault(gameId, List.of());
+                for (; seen < list.size(); seen++) {
+                    if (condition.test(list.get(seen))) return list.get(seen);
+                }
+                Thread.sleep(20);
+            }
+            fail("no matching state for " + gameId);
+            return null;
+        }
+
+        boolean awaitMessage(String gameId, Predicate<String> condition) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                if (messages.getOrDefault(gameId, List.of()).stream().anyMatch(condition)) return true;
+                Thread.sleep(20);
+            }
+            return false;
+        }
+    }
+}
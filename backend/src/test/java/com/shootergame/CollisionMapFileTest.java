@@ -0,0 +1,102 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.CollisionMapFile;
+import com.shootergame.game.map.MapCompiler;
+
+public class CollisionMapFileTest {
+
+    private static final Path MAPS = Path.of("..", "frontend", "public", "assets", "maps");
+    private static final List<String> LAYERS = List.of("Walls", "Walls2", "Objects");
+
+    @Test
+    public void roundTripPreservesEveryTile() throws Exception {
+        boolean[][] grid = new boolean[37][53];
+        Random rand = new Random(11);
+        for (boolean[] row : grid) {
+            for (int x = 0; x < row.length; x++) row[x] = rand.nextInt(4) == 0;
+        }
+        CollisionMap map = new CollisionMap(53, 37, 16, 24, grid);
+        Path file = Files.createTempFile("collision", CollisionMapFile.EXTENSION);
+        try {
+            CollisionMapFile.write(map, 42L, file);
+            CollisionMap read = CollisionMapFile.read(file, 42L);
+
+            assertNotNull(read);
+            assertEquals(53, read.getWidth());
+            assertEquals(37, read.getHeight());
+            assertEquals(16, read.getTileWidth());
+            assertEquals(24, read.getTileHeight());
+            for (int y = 0; y < 37; y++) {
+                for (int x = 0; x < 53; x++) {
+                    double px = x * 16 + 8, py = y * 24 + 12;
+                    assertEquals(map.isBlocked(px, py), read.isBlocked(px, py), "tile " + x + "," + y);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void staleStampIsRejected() throws Exception {
+        CollisionMap map = new CollisionMap(4, 4, 16, 16, new boolean[4][4]);
+        Path file = Files.createTempFile("collision", CollisionMapFile.EXTENSION);
+        try {
+            CollisionMapFile.write(map, 1L, file);
+            assertNull(CollisionMapFile.read(file, 2L));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void truncatedFileIsAnError() throws Exception {
+        Path file = Files.createTempFile("collision", CollisionMapFile.EXTENSION);
+        try {
+            Files.write(file, new byte[] {1, 2, 3});
+            assertThrows(IOException.class, () -> CollisionMapFile.read(file, 0L));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void compiledShippedMapsMatchJson() throws Exception {
+        Path out = Files.createTempDirectory("maps");
+        try {
+            MapCompiler.main(new String[] {out.toString()});
+            for (String[] entry : new String[][] {{"map2", "Map2.tmj"}, {"map3", "Map3.tmj"}}) {
+                Path source = MAPS.resolve(entry[1]);
+                CollisionMap json = CollisionMap.fromTiled(source, LAYERS);
+                CollisionMap binary = CollisionMapFile.read(out.resolve(entry[0] + CollisionMapFile.EXTENSION),
+                    CollisionMapFile.sourceStamp(source, LAYERS));
+
+                assertNotNull(binary, entry[0] + " must be current");
+                assertEquals(json.getWidth(), binary.getWidth());
+                assertEquals(json.getHeight(), binary.getHeight());
+                for (int y = 0; y < json.getPixelHeight(); y += json.getTileHeight()) {
+                    for (int x = 0; x < json.getPixelWidth(); x += json.getTileWidth()) {
+                        assertEquals(json.isBlocked(x, y), binary.isBlocked(x, y), entry[0] + " at " + x + "," + y);
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(out)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.map.CollisionMap;
+
+public class CollisionMapRaycastTest {
+
+    private static final Path MAPS = Path.of("..", "frontend", "public", "assets", "maps");
+    private static final List<String> LAYERS = List.of("Walls", "Walls2", "Objects");
+
+    @Test
+    public void raycastAgreesWithSamplingOnShippedMaps() throws Exception {
+        for (String file : List.of("Map2.tmj", "Map3.tmj")) {
+            CollisionMap map = CollisionMap.fromTiled(MAPS.resolve(file), LAYERS);
+            Random rand = new Random(file.hashCode());
+            int cornerClips = 0;
+            for (int i = 0; i < 20_000; i++) {
+                // Projectile-sized steps: 400 px/s over 20-100 ms ticks, in any direction
+                double sx = rand.nextDouble() * map.getPixelWidth();
+                double sy = rand.nextDouble() * map.getPixelHeight();
+                if (map.isBlocked(sx, sy)) continue;
+                double angle = rand.nextDouble() * Math.PI * 2;
+                double len = 8 + rand.nextDouble() * 32;
+                double ex = sx + Math.cos(angle) * len;
+                double ey = sy + Math.sin(angle) * len;
+
+                boolean sampled = sample(map, sx, sy, ex, ey, 4.0);
+                boolean cast = map.raycast(sx, sy, ex, ey, null);
+                if (sampled) {
+                    assertTrue(cast, "raycast missed a wall the sampler found in " + file);
+                } else if (cast) {
+                    // Only allowed where 4 px sampling skipped over a tile corner
+                    assertTrue(sample(map, sx, sy, ex, ey, 0.01), "raycast reported a phantom hit in " + file);
+                    cornerClips++;
+                }
+            }
+            assertTrue(cornerClips < 200, "raycast should differ from sampling only on rare corner clips");
+        }
+    }
+
+    @Test
+    public void raycastReportsFirstBlockedTileAndEntryPoint() {
+        boolean[][] blocked = new boolean[4][8];
+        blocked[1][3] = true;
+        blocked[1][5] = true;
+        CollisionMap map = new CollisionMap(8, 4, 16, 16, blocked);
+        CollisionMap.RayHit hit = new CollisionMap.RayHit();
+
+        assertTrue(map.raycast(8, 24, 120, 24, hit));
+        assertEquals(3, hit.tileX);
+        assertEquals(1, hit.tileY);
+        assertEquals(48.0, hit.x, 1e-9);
+        assertEquals(24.0, hit.y, 1e-9);
+
+        assertTrue(map.raycast(120, 24, 8, 24, hit));
+        assertEquals(5, hit.tileX);
+        assertEquals(96.0, hit.x, 1e-9);
+
+        assertFalse(map.raycast(8, 8, 120, 8, hit));
+        assertTrue(map.raycast(8, 8, -4, 8, hit), "leaving the map counts as a hit");
+        assertEquals(-1, hit.tileX);
+    }
+
+    // The per-4px sampler that raycast replaced
+    private static boolean sample(CollisionMap map, double sx, double sy, double ex, double ey, double spacing) {
+        double dx = ex - sx;
+        double dy = ey - sy;
+        int steps = Math.max(1, (int) Math.ceil(Math.hypot(dx, dy) / spacing));
+        for (int i = 1; i <= steps; i++) {
+            double t = (double) i / steps;
+            if (map.isBlocked(sx + dx * t, sy + dy * t)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.map.CollisionMap;
+
+public class CollisionMapTest {
+
+    @Test
+    public void bitsetLookupMatchesGrid() {
+        Random rand = new Random(7);
+        boolean[][] grid = randomGrid(rand, 70, 60, 0.2);
+        CollisionMap map = new CollisionMap(70, 60, 16, 16, grid);
+
+        for (int i = 0; i < 50_000; i++) {
+            double x = -50 + rand.nextDouble() * (map.getPixelWidth() + 100);
+            double y = -50 + rand.nextDouble() * (map.getPixelHeight() + 100);
+            int tx = (int) Math.floor(x / 16);
+            int ty = (int) Math.floor(y / 16);
+            boolean expected = tx < 0 || ty < 0 || tx >= 70 || ty >= 60 || grid[ty][tx];
+            assertEquals(expected, map.isBlocked(x, y), "lookup at " + x + "," + y);
+        }
+    }
+
+    @Test
+    public void nonPowerOfTwoTilesUseDivision() {
+        boolean[][] grid = new boolean[3][3];
+        grid[1][1] = true;
+        CollisionMap map = new CollisionMap(3, 3, 24, 24, grid);
+        assertFalse(map.isBlocked(23.9, 23.9));
+        assertTrue(map.isBlocked(24.0, 24.0));
+        assertTrue(map.isBlocked(47.9, 47.9));
+        assertFalse(map.isBlocked(48.0, 30.0));
+    }
+
+    @Test
+    public void circleChecksMatchBruteForce() {
+        Random rand = new Random(11);
+        boolean[][] grid = randomGrid(rand, 40, 30, 0.05);
+        CollisionMap map = new CollisionMap(40, 30, 16, 16, grid);
+        double radius = 15.0;
+
+        for (int i = 0; i < 20_000; i++) {
+            double x = rand.nextDouble() * map.getPixelWidth();
+            double y = rand.nextDouble() * map.getPixelHeight();
+            assertEquals(circleBruteForce(map, x, y, radius), map.isCircleBlocked(x, y, radius),
+                "circle at " + x + "," + y);
+            // Clearance is a lower bound: nothing blocked is closer than it
+            double c = map.clearance(x, y);
+            if (c > 0) {
+                assertFalse(circleBruteForce(map, x, y, c), "clearance overstated at " + x + "," + y);
+            }
+        }
+    }
+
+    private static boolean[][] randomGrid(Random rand, int w, int h, double density) {
+        boolean[][] grid = new boolean[h][w];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                grid[y][x] = rand.nextDouble() < density;
+            }
+        }
+        return grid;
+    }
+
+    // Exact circle/rectangle test against every tile of the map and the outside border
+    private static boolean circleBruteForce(CollisionMap map, double x, double y, double r) {
+        int tw = map.getTileWidth(), th = map.getTileHeight();
+        for (int ty = -1; ty <= map.getHeight(); ty++) {
+            for (int tx = -1; tx <= map.getWidth(); tx++) {
+                if (!map.isBlocked(tx * tw + 0.5, ty * th + 0.5)) continue;
+                double cx = Math.max(tx * tw, Math.min(x, (tx + 1) * tw));
+                double cy = Math.max(ty * th, Math.min(y, (ty + 1) * th));
+                if ((x - cx) * (x - cx) + (y - cy) * (y - cy) < r * r) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.entity.PlayerState;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+
+public class DeltaSnapshotTest {
+
+    @Test
+    public void applyingDeltaToBaselineRebuildsCurrentState() {
+        WorldState world = new WorldState("delta-test");
+        world.applyInput(new PlayerInput(1, "RIGHT", ""));
+        world.applyInput(new PlayerInput(2, "UP", ""));
+        world.applyInput(new PlayerInput(3, "LEFT", ""));
+        PlayerState shooter = world.getPlayers().get(1);
+        world.spawnProjectile(shooter, 400.0, 0.0);
+        world.spawnProjectile(shooter, 0.0, 400.0);
+        StateSnapshot base = StateSnapshot.of(world);
+
+        // Move one player, kill another, drop a projectile and add a new one
+        world.getPlayers().get(1).x += 12.0;
+        world.getPlayers().get(3).lives = 0;
+        world.getProjectiles().kill(0);
+        world.getProjectiles().removeDead();
+        world.spawnProjectile(shooter, -400.0, 0.0);
+        StateSnapshot current = StateSnapshot.of(world);
+
+        DeltaSnapshot delta = DeltaSnapshot.between(7, base, 8, current);
+
+        assertEquals(DeltaSnapshot.TYPE, delta.type());
+        assertEquals(7, delta.baseline());
+        assertEquals(8, delta.seq());
+        assertEquals(List.of(3), delta.removedPlayers());
+        assertEquals(1, delta.players().size(), "only the moved player is resent");
+        assertEquals(1, delta.removedProjectiles().size());
+        assertEquals(1, delta.projectiles().size(), "only the new projectile is sent");
+        assertTrue(delta.powerups().isEmpty());
+
+        assertEquals(sorted(current.players(), PlayerView::id),
+            apply(base.players(), delta.players(), delta.removedPlayers(), PlayerView::id));
+        assertEquals(sorted(current.projectiles(), ProjectileView::id),
+            apply(base.projectiles(), delta.projectiles(), delta.removedProjectiles(), ProjectileView::id));
+        assertEquals(sorted(current.powerups(), PowerupView::id),
+            apply(base.powerups(), delta.powerups(), delta.removedPowerups(), PowerupView::id));
+    }
+
+    @Test
+    public void fullDeltaCarriesEverything() {
+        WorldState world = new WorldState("delta-full");
+        world.applyInput(new PlayerInput(1, "RIGHT", ""));
+        StateSnapshot state = StateSnapshot.of(world);
+
+        DeltaSnapshot delta = DeltaSnapshot.full(5, state);
+
+        assertEquals(0, delta.baseline());
+        assertEquals(state.players(), delta.players());
+        assertEquals(state.powerups(), delta.powerups());
+        assertTrue(delta.removedPlayers().isEmpty());
+    }
+
+    @Test
+    public void historyForgetsSnapshotsOutsideTheRing() {
+        SnapshotHistory history = new SnapshotHistory();
+        StateSnapshot empty = new StateSnapshot(StateSnapshot.TYPE, List.of(), List.of(), List.of(), "map1", false);
+        assertNull(history.get(0));
+        assertNull(history.get(1));
+
+        for (int i = 0; i < SnapshotHistory.CAPACITY + 3; i++) {
+            history.record(empty);
+        }
+
+        long latest = history.getLatestSeq();
+        assertEquals(SnapshotHistory.CAPACITY + 3, latest);
+        assertSame(empty, history.get(latest));
+        assertNotNull(history.get(latest - SnapshotHistory.CAPACITY + 1));
+        assertNull(history.get(latest - SnapshotHistory.CAPACITY));
+        assertNull(history.get(latest + 1));
+    }
+
+    // What a client does: drop removed ids, then upsert changed entities
+    private static <V> List<V> apply(List<V> base, List<V> changed, List<Integer> removed, ToIntFunction<V> id) {
+        Map<Integer, V> byId = new LinkedHashMap<>();
+        for (V v : base) byId.put(id.applyAsInt(v), v);
+        for (Integer r : removed) byId.remove(r);
+        for (V v : changed) byId.put(id.applyAsInt(v), v);
+        return sorted(new ArrayList<>(byId.values()), id);
+    }
+
+    private static <V> List<V> sorted(List<V> list, ToIntFunction<V> id) {
+        List<V> out = new ArrayList<>(list);
+        out.sort((a, b) -> Integer.compare(id.applyAsInt(a), id.applyAsInt(b)));
+        return out;
+    }
+}
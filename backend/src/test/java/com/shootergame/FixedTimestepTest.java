@@ -0,0 +1,133 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.GameLoop;
+import com.shootergame.game.WorldCheckpoint;
+import com.shootergame.game.WorldState;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+import com.shootergame.util.JsonSerializer;
+
+public class FixedTimestepTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final GameBroadcaster NOWHERE = new GameBroadcaster() {
+        @Override
+        public void broadcastToGame(String gameId, String message) {}
+        @Override
+        public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {}
+    };
+
+    @Test
+    public void accumulatedTimeIsSimulatedInWholeStepsUpToTheCatchUpLimit() {
+        WorldState world = new WorldState("clock");
+        world.setTimestep(20 * MS, 5);
+        long now = 1_000 * MS;
+
+        assertEquals(1, world.stepsDue(now), "the first tick simulates one step");
+        assertEquals(1, world.stepsDue(now += 20 * MS));
+        assertEquals(0, world.stepsDue(now += 12 * MS), "part of a step waits");
+        assertEquals(1, world.stepsDue(now += 12 * MS));
+        assertEquals(2, world.stepsDue(now += 36 * MS), "4 ms left over plus 36");
+        // A stall: only five steps are caught up, the rest of the time is dropped
+        assertEquals(5, world.stepsDue(now += 1_000 * MS));
+        assertEquals(900 * MS, world.getDroppedNs());
+        assertEquals(1, world.stepsDue(now += 20 * MS));
+        assertEquals(11, world.getSimulatedSteps());
+        assertEquals(0.02, world.getStepSeconds());
+    }
+
+    @Test
+    public void sameInputsGiveTheSameWorldUnderAnyTickSchedule() throws Exception {
+        JsonSerializer serializer = new JsonSerializer();
+        String steady = serializer.toJson(play(STEADY, 0));
+        String uneven = serializer.toJson(play(UNEVEN, 0));
+
+        assertTrue(steady.contains("\"lives\":0"), "the scripted match had shots land");
+        assertTrue(steady.contains("\"step\":" + STEPS + ","));
+        assertEquals(steady, uneven);
+    }
+
+    @Test
+    public void checkpointCarriesTheStepAndRandomState() throws Exception {
+        JsonSerializer serializer = new JsonSerializer();
+        // Moved before the powerups first reposition at 15 s, so the target draws the positions
+        assertEquals(serializer.toJson(play(UNEVEN, 0)), serializer.toJson(play(UNEVEN, 700)));
+    }
+
+    private static final int STEPS = 1200;
+
+    // Gap before each tick, in ms: one step per tick, or uneven as a loaded server would tick
+    private static final IntUnaryOperator STEADY = tick -> 20;
+    private static final IntUnaryOperator UNEVEN = tick -> tick % 10 == 9 ? 95 : tick % 7 == 3 ? 0 : 13 + tick % 11;
+
+    /**
+     * A scripted match of STEPS steps, each input stamped with its step and sent
+     * a few steps ahead. With {@code moveAt} set, the world is checkpointed at the
+     * first tick boundary from that step on and finished in a second loop.
+     */
+    private static WorldCheckpoint play(IntUnaryOperator schedule, long moveAt) throws InterruptedException {
+        GameLoop loop = new GameLoop(NOWHERE);
+        try {
+            for (int pid = 1; pid <= 4; pid++) {
+                loop.submitMembership("replay", MembershipEvent.join(pid));
+            }
+            long now = 5_000 * MS;
+            // The first tick runs step 1; after it, each 20 ms of clock is one more step
+            long end = now + (STEPS - 1) * 20 * MS;
+            long sent = 0;
+            boolean moved = moveAt == 0;
+            for (int tick = 0; tick < 10 * STEPS; tick++) {
+                WorldState world = loop.getOrCreateWorld("replay");
+                if (!moved && world.getSimulatedSteps() >= moveAt) {
+                    moved = true;
+                    WorldCheckpoint checkpoint = loop.detachWorld("replay");
+                    loop.stop();
+                    loop = new GameLoop(NOWHERE);
+                    loop.attachWorld("replay", checkpoint).resumeClock(now);
+                    world = loop.getOrCreateWorld("replay");
+                    // Time not yet simulated stayed behind with the old clock
+                    end = now + (STEPS - world.getSimulatedSteps()) * 20 * MS;
+                }
+                if (world.getSimulatedSteps() == STEPS) {
+                    return loop.detachWorld("replay");
+                }
+                // At most five steps per tick, so stamping five ahead is never late
+                for (; sent < Math.min(world.getSimulatedSteps() + 5, STEPS); sent++) {
+                    sendInputs(loop, sent + 1);
+                }
+                if (tick > 0) {
+                    now = Math.min(now + schedule.applyAsInt(tick) * MS, end);
+                }
+                loop.tickOnce("replay", now);
+            }
+            throw new AssertionError("the clock never reached step " + STEPS);
+        } finally {
+            loop.stop();
+        }
+    }
+
+    private static void sendInputs(GameLoop loop, long step) {
+        // Each player walks out and back, so positions depend on the exact step of every input
+        String[] moves = {"RIGHT", "STOP_RIGHT", "DOWN", "STOP_DOWN", "LEFT", "STOP_LEFT", "UP", "STOP_UP"};
+        if (step == 2) {
+            loop.submitInput("replay", new PlayerInput(1, "START", "", step));
+        } else if (step > 2 && step % 3 == 0) {
+            int pid = 1 + (int) (step / 3 % 4);
+            loop.submitInput("replay", new PlayerInput(pid, moves[(int) (step / 12 % moves.length)], "", step));
+            if (step % 15 == 0) {
+                loop.submitInput("replay", new PlayerInput(pid, "FIRE", moves[(int) (step % 4)], step));
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.framing.Framedata;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.network.FrameEncoder;
+import com.shootergame.util.JsonSerializer;
+
+public class FrameEncoderTest {
+
+    private final JsonSerializer serializer = new JsonSerializer();
+
+    @Test
+    public void encodesJsonAsUtf8TextFrame() {
+        FrameEncoder encoder = new FrameEncoder();
+        Map<String, Object> msg = Map.of("type", "game_start", "map", "kort-æøå");
+
+        Framedata frame = encoder.encodeJson(serializer, msg);
+
+        assertEquals(Opcode.TEXT, frame.getOpcode());
+        assertTrue(frame.isFin());
+        assertEquals(serializer.toJson(msg), decode(frame.getPayloadData()));
+    }
+
+    @Test
+    public void growsForLargeMessagesAndReusesBuffer() {
+        FrameEncoder encoder = new FrameEncoder();
+        String big = "x".repeat(20_000);
+
+        Framedata first = encoder.encodeText(big);
+        assertEquals(big, decode(first.getPayloadData()));
+
+        Framedata second = encoder.encodeText("small");
+        assertSame(first, second, "the frame object is reused");
+        assertEquals("small", decode(second.getPayloadData()));
+        assertEquals(5, encoder.lastPayloadSize());
+    }
+
+    private static String decode(ByteBuffer payload) {
+        ByteBuffer copy = payload.duplicate();
+        byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -16,7 +16,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.shootergame.game.GameLoop;
-import com.shootergame.game.input.InputConsumer;
 import com.shootergame.network.NetworkServer;
 import com.google.gson.Gson;
 
@@ -36,11 +35,8 @@ public class GameLoopIntegrationTest {
         server = new NetworkServer(new InetSocketAddress("localhost", port), space);
         server.start();
         Thread.sleep(200);
-        gameLoop = new GameLoop(space, server);
+        gameLoop = new GameLoop(server);
         gameLoop.start();
-        // start input consumer so GameLoop receives inputs
-        InputConsumer ic = new InputConsumer(space, gameLoop);
-        ic.start();
     }
 
     @AfterEach
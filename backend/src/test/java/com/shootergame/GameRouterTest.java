@@ -0,0 +1,83 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.cluster.GameRouter;
+
+public class GameRouterTest {
+
+    private static final int GAMES = 20_000;
+
+    private static Map<String, String> placements(GameRouter router) {
+        Map<String, String> out = new HashMap<>();
+        for (int i = 0; i < GAMES; i++) {
+            out.put("game-" + i, router.nodeFor("game-" + i));
+        }
+        return out;
+    }
+
+    @Test
+    public void gamesSpreadInProportionToWeight() {
+        GameRouter router = GameRouter.of(List.of("a:1", "b:1", "c:1@2"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (String node : placements(router).values()) {
+            counts.merge(node, 1, Integer::sum);
+        }
+        assertEquals(0.25, counts.get("a:1") / (double) GAMES, 0.05);
+        assertEquals(0.25, counts.get("b:1") / (double) GAMES, 0.05);
+        assertEquals(0.50, counts.get("c:1") / (double) GAMES, 0.05);
+    }
+
+    @Test
+    public void addingANodeOnlyMovesGamesOntoIt() {
+        GameRouter router = GameRouter.of(List.of("a:1", "b:1", "c:1"));
+        Map<String, String> before = placements(router);
+        router.addNode("d:1", 1);
+        Map<String, String> after = placements(router);
+
+        int moved = 0;
+        for (Map.Entry<String, String> e : after.entrySet()) {
+            if (!e.getValue().equals(before.get(e.getKey()))) {
+                assertEquals("d:1", e.getValue(), "a game only ever moves to the new node");
+                moved++;
+            }
+        }
+        assertEquals(0.25, moved / (double) GAMES, 0.05);
+    }
+
+    @Test
+    public void removingANodeOnlyMovesItsGames() {
+        GameRouter router = GameRouter.of(List.of("a:1", "b:1", "c:1"));
+        Map<String, String> before = placements(router);
+        router.removeNode("b:1");
+        Map<String, String> after = placements(router);
+
+        for (Map.Entry<String, String> e : before.entrySet()) {
+            if (!e.getValue().equals("b:1")) {
+                assertEquals(e.getValue(), after.get(e.getKey()), "games on other nodes stay put");
+            } else {
+                assertNotEquals("b:1", after.get(e.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void pinsOverrideTheRingUntilTheirNodeLeaves() {
+        GameRouter router = GameRouter.of(List.of("a:1", "b:1"));
+        String game = "pinned";
+        String other = router.nodeFor(game).equals("a:1") ? "b:1" : "a:1";
+
+        router.pin(game, other);
+        assertEquals(other, router.nodeFor(game));
+
+        router.removeNode(other);
+        assertNotEquals(other, router.nodeFor(game));
+        assertEquals(List.of(other.equals("a:1") ? "b:1" : "a:1"), router.nodes());
+    }
+}
@@ -0,0 +1,96 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.jspace.SequentialSpace;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.space.GameSpace;
+import com.shootergame.space.JSpaceGameSpace;
+import com.shootergame.space.StripedGameSpace;
+
+public class GameSpaceTest {
+
+    private static List<GameSpace> implementations() {
+        return List.of(new JSpaceGameSpace(new SequentialSpace()), new StripedGameSpace());
+    }
+
+    @Test
+    public void playersAreListedAndRemovedWithDuplicates() throws Exception {
+        for (GameSpace space : implementations()) {
+            String name = space.getClass().getSimpleName();
+            space.putPlayer(3);
+            space.putPlayer(1);
+            space.putPlayer(3);
+
+            List<Integer> players = new ArrayList<>(space.players());
+            players.sort(null);
+            assertEquals(List.of(1, 3, 3), players, name);
+            assertTrue(space.removePlayer(3), name);
+            assertFalse(space.removePlayer(3), name);
+            assertEquals(List.of(1), space.players(), name);
+        }
+    }
+
+    @Test
+    public void inputsDrainInOrderAndBounded() throws Exception {
+        for (GameSpace space : implementations()) {
+            String name = space.getClass().getSimpleName();
+            for (int i = 0; i < 5; i++) {
+                space.putInput(new PlayerInput(i, "UP", ""));
+            }
+            List<Integer> seen = new ArrayList<>();
+
+            assertEquals(3, space.drainInputs(3, in -> seen.add(in.playerId())), name);
+            assertEquals(2, space.drainInputs(10, in -> seen.add(in.playerId())), name);
+            assertEquals(0, space.drainInputs(10, in -> seen.add(in.playerId())), name);
+            assertEquals(List.of(0, 1, 2, 3, 4), seen, name);
+        }
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingAndKeepPerProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 500;
+        for (GameSpace space : implementations()) {
+            String name = space.getClass().getSimpleName();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int pid = p;
+                Thread t = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < perProducer; i++) {
+                            space.putInput(new PlayerInput(pid, "UP", Integer.toString(i)));
+                            space.putPlayer(1000 + pid);
+                            space.removePlayer(1000 + pid);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads.add(t);
+                t.start();
+            }
+            start.countDown();
+            for (Thread t : threads) t.join();
+
+            Map<Integer, Integer> nextSeq = new HashMap<>();
+            int drained = space.drainInputs(Integer.MAX_VALUE, in -> {
+                int expected = nextSeq.getOrDefault(in.playerId(), 0);
+                assertEquals(expected, Integer.parseInt(in.payload()), name + " order for " + in.playerId());
+                nextSeq.put(in.playerId(), expected + 1);
+            });
+            assertEquals(producers * perProducer, drained, name);
+            assertTrue(space.players().isEmpty(), name);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.MapRepository;
+
+public class MapRepositoryTest {
+
+    @Test
+    public void worldsShareOneInstancePerMap() {
+        MapRepository.preload();
+        WorldState a = new WorldState("maps-a");
+        WorldState b = new WorldState("maps-b");
+
+        assertSame(a.getCollisionMap(), b.getCollisionMap());
+        assertSame(MapRepository.get(MapRepository.DEFAULT_MAP), a.getCollisionMap());
+
+        a.applyInput(new PlayerInput(1, "START", "map3"));
+        b.applyInput(new PlayerInput(1, "START", "map3"));
+
+        assertEquals("map3", a.getCurrentMapId());
+        assertSame(MapRepository.get("map3"), a.getCollisionMap());
+        assertSame(a.getCollisionMap(), b.getCollisionMap());
+        assertNotSame(MapRepository.get("map2"), a.getCollisionMap());
+    }
+
+    @Test
+    public void unknownMapFallsBackToDefault() {
+        WorldState world = new WorldState("maps-unknown");
+
+        world.applyInput(new PlayerInput(1, "START", "no-such-map"));
+
+        assertEquals(MapRepository.DEFAULT_MAP, world.getCurrentMapId());
+        assertSame(MapRepository.get(MapRepository.DEFAULT_MAP), world.getCollisionMap());
+    }
+
+    @Test
+    public void preloadedMapsAreRealAndReportMemory() {
+        MapRepository.preload();
+        CollisionMap map = MapRepository.get("map3");
+
+        assertTrue(map.getWidth() > 0 && map.getHeight() > 0);
+        assertTrue(MapRepository.footprintBytes() >= map.footprintBytes());
+        assertTrue(MapRepository.describe().contains("map3"));
+    }
+}
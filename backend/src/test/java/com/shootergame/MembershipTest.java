@@ -0,0 +1,127 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.GameLoop;
+import com.shootergame.game.WorldState;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+
+public class MembershipTest {
+
+    @Test
+    public void joinsAndLeavesApplyAtTickBoundary() {
+        WorldState world = new WorldState("members");
+
+        world.enqueueMembership(MembershipEvent.join(1));
+        world.enqueueMembership(MembershipEvent.join(2));
+        assertTrue(world.getPlayers().isEmpty(), "nothing changes until the tick applies the queue");
+
+        world.applyMembershipChanges();
+        assertEquals(2, world.getPlayers().size());
+
+        world.enqueueMembership(MembershipEvent.leave(1));
+        world.enqueueMembership(MembershipEvent.leave(99));
+        world.applyMembershipChanges();
+        assertFalse(world.getPlayers().containsKey(1));
+        assertTrue(world.getPlayers().containsKey(2));
+    }
+
+    @Test
+    public void colorsStayPutWhenEarlierPlayersLeave() {
+        WorldState world = new WorldState("members-colors");
+        for (int pid = 1; pid <= 4; pid++) {
+            world.enqueueMembership(MembershipEvent.join(pid));
+        }
+        world.applyMembershipChanges();
+        assertEquals("green", world.getPlayers().get(1).color);
+        assertEquals("red", world.getPlayers().get(2).color);
+        assertEquals("blue", world.getPlayers().get(3).color);
+        assertEquals("yellow", world.getPlayers().get(4).color);
+
+        world.enqueueMembership(MembershipEvent.leave(1));
+        world.applyMembershipChanges();
+        assertEquals("red", world.getPlayers().get(2).color);
+        assertEquals("blue", world.getPlayers().get(3).color);
+        assertEquals("yellow", world.getPlayers().get(4).color);
+
+        // A newcomer takes the freed color; a duplicate join changes nothing
+        world.enqueueMembership(MembershipEvent.join(5));
+        world.enqueueMembership(MembershipEvent.join(2));
+        world.applyMembershipChanges();
+        assertEquals("green", world.getPlayers().get(5).color);
+        assertEquals("red", world.getPlayers().get(2).color);
+    }
+
+    @Test
+    public void producersOnManyThreadsOnlyReachTheWorldThroughTheTick() throws Exception {
+        Set<String> writers = ConcurrentHashMap.newKeySet();
+        AtomicReference<StateSnapshot> last = new AtomicReference<>();
+        GameLoop loop = new GameLoop(new GameBroadcaster() {
+            @Override
+            public void broadcastToGame(String gameId, String message) {}
+            @Override
+            public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {
+                writers.add(Thread.currentThread().getName());
+                last.set(state);
+            }
+        });
+        loop.start();
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int pid = t + 1;
+                Thread producer = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    loop.submitMembership("crowd", MembershipEvent.join(pid));
+                    for (int n = 0; n < 500; n++) {
+                        loop.submitInput("crowd", new PlayerInput(pid, n % 2 == 0 ? "RIGHT" : "STOP_RIGHT", ""));
+                    }
+                }, "Producer-" + pid);
+                producers.add(producer);
+                producer.start();
+            }
+            go.countDown();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            awaitSnapshot(last, s -> s.players().size() == 8, "every join reaches the world");
+            loop.submitInput("crowd", new PlayerInput(1, "START", ""));
+            awaitSnapshot(last, StateSnapshot::running, "START is applied by the tick");
+            for (String writer : writers) {
+                assertFalse(writer.startsWith("Producer-"), writer + " broadcast a snapshot");
+            }
+        } finally {
+            loop.stop();
+        }
+    }
+
+    private static void awaitSnapshot(AtomicReference<StateSnapshot> last, Predicate<StateSnapshot> condition,
+                                      String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (last.get() == null || !condition.test(last.get())) {
+            assertTrue(System.currentTimeMillis() < deadline, what);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
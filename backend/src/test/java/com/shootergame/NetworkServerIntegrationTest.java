@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.jspace.ActualField;
 import org.jspace.FormalField;
@@ -16,6 +19,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
 import com.shootergame.network.NetworkServer;
 
 import com.google.gson.Gson;
@@ -78,7 +83,9 @@ public class NetworkServerIntegrationTest {
     }
 
     @Test
-    public void inputProducesEventTuple() throws Exception {
+    public void inputReachesInputSink() throws Exception {
+        BlockingQueue<Object[]> inputs = new ArrayBlockingQueue<>(10);
+        server.setInputSink((gameId, input) -> inputs.offer(new Object[] { gameId, input }));
         Gson gson = new Gson();
         WebSocketClient client = new WebSocketClient(new URI("ws://localhost:" + port)) {
             @Override
@@ -94,20 +101,47 @@ public class NetworkServerIntegrationTest {
         client.connectBlocking();
         client.send(gson.toJson(java.util.Map.of("type", "input", "playerId", 7, "action", "UP")));
 
-        // wait up to 1s for input tuple
-        Object[] ev = null;
-        long deadline = System.currentTimeMillis() + 1000;
-        while (System.currentTimeMillis() < deadline) {
-            ev = space.getp(new ActualField("input"), new FormalField(Integer.class), new FormalField(String.class), new FormalField(String.class));
-            if (ev != null) break;
-            Thread.sleep(20);
-        }
+        // wait up to 1s for the input to be routed
+        Object[] ev = inputs.poll(1, TimeUnit.SECONDS);
 
-        assertNotNull(ev, "input tuple must appear");
-        assertEquals(7, ((Number) ev[1]).intValue());
-        assertEquals("UP", ev[2]);
+        assertNotNull(ev, "input must reach the sink");
+        PlayerInput input = (PlayerInput) ev[1];
+        assertEquals("default", ev[0]);
+        assertEquals(7, input.playerId());
+        assertEquals("UP", input.action());
 
         client.close();
     }
 
+    @Test
+    public void registerAndCloseReachMembershipSink() throws Exception {
+        BlockingQueue<Object[]> events = new ArrayBlockingQueue<>(10);
+        server.setMembershipSink((gameId, event) -> events.offer(new Object[] { gameId, event }));
+        Gson gson = new Gson();
+        WebSocketClient client = new WebSocketClient(new URI("ws://localhost:" + port)) {
+            @Override
+            public void onOpen(ServerHandshake handshakedata) {}
+            @Override
+            public void onMessage(String message) {}
+            @Override
+            public void onClose(int code, String reason, boolean remote) {}
+            @Override
+            public void onError(Exception ex) { ex.printStackTrace(); }
+        };
+
+        client.connectBlocking();
+        client.send(gson.toJson(java.util.Map.of("type", "register", "playerId", 9, "gameId", "g1")));
+
+        Object[] joined = events.poll(1, TimeUnit.SECONDS);
+        assertNotNull(joined, "join must reach the sink");
+        assertEquals("g1", joined[0]);
+        assertEquals(MembershipEvent.join(9), joined[1]);
+
+        client.closeBlocking();
+
+        Object[] left = events.poll(1, TimeUnit.SECONDS);
+        assertNotNull(left, "leave must reach the sink");
+        assertEquals("g1", left[0]);
+        assertEquals(MembershipEvent.leave(9), left[1]);
+    }
 }
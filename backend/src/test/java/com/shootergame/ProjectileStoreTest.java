@@ -0,0 +1,87 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.entity.ProjectileStore;
+import com.shootergame.game.map.CollisionMap;
+
+public class ProjectileStoreTest {
+
+    @Test
+    public void removeDeadCompactsAndKeepsSurvivors() {
+        ProjectileStore store = new ProjectileStore();
+        int a = store.spawn(1, 100, 100, 0, 0);
+        int b = store.spawn(1, 200, 200, 0, 0);
+        int c = store.spawn(2, 300, 300, 0, 0);
+        store.kill(0);
+        store.setPosition(2, -50, 300); // out of bounds
+
+        store.removeDead();
+
+        assertEquals(1, store.size());
+        assertEquals(b, store.id(0));
+        assertEquals(200.0, store.x(0));
+        assertNotEquals(a, store.id(0));
+        assertNotEquals(c, store.id(0));
+    }
+
+    @Test
+    public void projectileStopsAtWall() {
+        boolean[][] blocked = new boolean[10][10];
+        blocked[5][6] = true;
+        ProjectileStore store = new ProjectileStore();
+        store.setCollisionMap(new CollisionMap(10, 10, 16, 16, blocked));
+        store.setBounds(160, 160, 10);
+        store.spawn(1, 88, 88, 400, 0);
+
+        store.update(0.05); // 20 px, crosses into tile x=6 at px 96
+        assertFalse(store.isAlive(0));
+        store.removeDead();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void idsAreNotReusedImmediately() {
+        ProjectileStore store = new ProjectileStore();
+        Set<Integer> recent = new HashSet<>();
+        for (int round = 0; round < 10; round++) {
+            int pid = store.spawn(1, 100, 100, 0, 0);
+            assertTrue(recent.add(pid), "id " + pid + " reused too early");
+            store.kill(0);
+            store.removeDead();
+        }
+    }
+
+    @Test
+    public void steadyStateFiringDoesNotAllocate() {
+        ProjectileStore store = new ProjectileStore();
+        store.setBounds(1120, 960, 10);
+        // Warm up to the peak population so arrays and the free list are sized
+        churn(store, 2_000);
+
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(tid);
+        churn(store, 2_000);
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+
+        assertTrue(allocated < 1024, "steady-state churn allocated " + allocated + " bytes");
+    }
+
+    // Spawn a volley each tick and let projectiles fly off the map
+    private static void churn(ProjectileStore store, int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            for (int k = 0; k < 3; k++) {
+                store.spawn(1, 560, 480, 2000 * (k - 1), 2000);
+            }
+            store.update(0.02);
+            store.removeDead();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.network.SendQueues;
+
+public class SendQueuesTest {
+
+    private SendQueues queues;
+
+    @AfterEach
+    public void tearDown() {
+        if (queues != null) queues.shutdown();
+    }
+
+    @Test
+    public void newerSnapshotsReplaceUnsentOnesAndMessagesKeepTheirOrder() throws Exception {
+        queues = new SendQueues(2, 8);
+        FakeSocket client = new FakeSocket();
+        client.busy = true; // still writing: snapshots must wait
+
+        queues.sendSnapshot(client.socket, text("snap-1"));
+        queues.sendText(client.socket, "game_start");
+        queues.sendSnapshot(client.socket, text("snap-2"));
+        queues.sendText(client.socket, "game_over");
+        queues.sendSnapshot(client.socket, text("snap-3"));
+        client.busy = false;
+
+        awaitTrue(() -> client.received.size() == 3);
+        assertEquals(List.of("game_start", "game_over", "snap-3"), client.received);
+        assertEquals(2, queues.getDroppedSnapshots());
+        assertEquals(0, queues.getQueuedFrames());
+    }
+
+    @Test
+    public void clientThatFallsTooFarBehindIsDisconnected() throws Exception {
+        queues = new SendQueues(1, 2);
+        FakeSocket client = new FakeSocket();
+        client.busy = true;
+
+        queues.sendSnapshot(client.socket, text("snap-1"));
+        queues.sendText(client.socket, "a");
+        queues.sendText(client.socket, "b");
+
+        assertEquals(CloseFrame.POLICY_VALIDATION, client.closedWith);
+        assertEquals(1, queues.getOverflows());
+        client.busy = false;
+        Thread.sleep(50); // past a retry
+        assertTrue(client.received.isEmpty(), "the dropped queue is not sent later");
+    }
+
+    @Test
+    public void everyClientGetsItsMessagesInOrder() throws Exception {
+        queues = new SendQueues(4, 256);
+        List<FakeSocket> clients = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            clients.add(new FakeSocket());
+        }
+        List<String> expected = new ArrayList<>();
+        for (int n = 0; n < 100; n++) {
+            expected.add("m" + n);
+            for (FakeSocket c : clients) {
+                queues.sendText(c.socket, "m" + n);
+            }
+        }
+        for (FakeSocket c : clients) {
+            awaitTrue(() -> c.received.size() == expected.size());
+            assertEquals(expected, c.received);
+        }
+        assertEquals(2000, queues.getSentFrames());
+    }
+
+    private static ByteBuffer text(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Records the frames handed to it; {@code busy} stands for unwritten data.
+     */
+    private static final class FakeSocket {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        volatile boolean busy;
+        volatile int closedWith = -1;
+        final WebSocket socket = (WebSocket) Proxy.newProxyInstance(WebSocket.class.getClassLoader(),
+            new Class<?>[] {WebSocket.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "sendFrame":
+                        ByteBuffer payload = ((Framedata) args[0]).getPayloadData().duplicate();
+                        byte[] bytes = new byte[payload.remaining()];
+                        payload.get(bytes);
+                        received.add(new String(bytes, StandardCharsets.UTF_8));
+                        return null;
+                    case "hasBufferedData":
+                        return busy;
+                    case "isOpen":
+                        return closedWith < 0;
+                    case "close":
+                        closedWith = args != null && args.length > 0 ? (int) args[0] : CloseFrame.NORMAL;
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,54 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.ShardedTickEngine;
+import com.shootergame.game.TickStats;
+import com.shootergame.game.WorldState;
+
+public class ShardedTickEngineTest {
+
+    @Test
+    public void worldsTickOnOneThreadEachAndInParallel() throws Exception {
+        Map<String, AtomicInteger> concurrent = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> ticks = new ConcurrentHashMap<>();
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        ShardedTickEngine engine = new ShardedTickEngine((gid, world, now) -> {
+            if (concurrent.get(gid).incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            threads.putIfAbsent(gid, Thread.currentThread().getName());
+            ticks.get(gid).incrementAndGet();
+            concurrent.get(gid).decrementAndGet();
+        }, 5, 4);
+
+        for (int i = 0; i < 8; i++) {
+            String gid = "g" + i;
+            concurrent.put(gid, new AtomicInteger());
+            ticks.put(gid, new AtomicInteger());
+            engine.assign(gid, new WorldState(gid));
+        }
+
+        engine.start();
+        Thread.sleep(300);
+        engine.stop();
+
+        assertEquals(0, overlaps.get(), "a world must never be ticked concurrently");
+        for (AtomicInteger t : ticks.values()) {
+            assertTrue(t.get() > 0, "every world is ticked");
+        }
+        assertTrue(threads.values().stream().distinct().count() > 1, "worlds are spread over shards");
+        assertEquals(4, engine.getShardStats().size());
+        for (TickStats stats : engine.getShardStats()) {
+            assertTrue(stats.getTicks() > 0);
+        }
+    }
+}
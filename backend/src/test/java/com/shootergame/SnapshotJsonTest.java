@@ -0,0 +1,113 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.DeltaSnapshot;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.util.JsonSerializer;
+
+public class SnapshotJsonTest {
+
+    private final JsonSerializer serializer = new JsonSerializer();
+
+    @Test
+    public void matchesGoldenStateMessage() {
+        StateSnapshot state = new StateSnapshot(StateSnapshot.TYPE,
+            List.of(new PlayerView(1, 100.5, 0.1 + 0.2, "green", 3, 1.0E-5, true, 12345678.9)),
+            List.of(new ProjectileView(7, -0.0, 2.0E10, 400.0, -400.0)),
+            List.of(new PowerupView(2, 64.0, 96.25, "spreadShot", false)),
+            "map2", true);
+
+        assertEquals("{\"type\":\"state\","
+            + "\"players\":[{\"id\":1,\"x\":100.5,\"y\":0.30000000000000004,\"color\":\"green\",\"lives\":3,"
+            + "\"invulnerableTime\":1.0E-5,\"hasSpeedBoost\":true,\"speedBoostTimer\":1.23456789E7}],"
+            + "\"projectiles\":[{\"id\":7,\"x\":-0.0,\"y\":2.0E10,\"vx\":400.0,\"vy\":-400.0}],"
+            + "\"powerups\":[{\"id\":2,\"x\":64.0,\"y\":96.25,\"type\":\"spreadShot\",\"active\":false}],"
+            + "\"map\":\"map2\",\"running\":true}", json(state));
+        assertEquals(serializer.toJsonReflective(state), json(state));
+    }
+
+    @Test
+    public void matchesGsonForWorldsAndDeltas() {
+        WorldState world = new WorldState("json-test");
+        Random rand = new Random(11);
+        for (int i = 1; i <= 6; i++) {
+            world.applyInput(new PlayerInput(i, "RIGHT", ""));
+        }
+        StateSnapshot before = StateSnapshot.of(world);
+        for (int i = 0; i < 40; i++) {
+            world.spawnProjectile(world.getPlayers().get(1 + rand.nextInt(6)),
+                rand.nextGaussian() * 400, rand.nextGaussian() * 400);
+        }
+        world.getPlayers().get(3).lives = 0;
+        world.applyInput(new PlayerInput(1, "DOWN", ""));
+        StateSnapshot after = StateSnapshot.of(world);
+
+        assertSameAsGson(before);
+        assertSameAsGson(after);
+        assertSameAsGson(DeltaSnapshot.full(9, after));
+        DeltaSnapshot delta = DeltaSnapshot.between(9, before, 10, after);
+        assertFalse(delta.removedPlayers().isEmpty());
+        assertSameAsGson(delta);
+    }
+
+    @Test
+    public void escapesStringsAndSkipsNullsLikeGson() {
+        String nasty = "q\"b\\s/t\tn\nr\rb\bf\f<>&='\u0001\u001f\u007f\u2028\u2029æø😀";
+        assertSameAsGson(new StateSnapshot(StateSnapshot.TYPE,
+            Arrays.asList(new PlayerView(1, 1, 2, nasty, 3, 0, false, 0), null,
+                new PlayerView(2, 1, 2, null, 3, 0, false, 0)),
+            List.of(),
+            List.of(new PowerupView(1, 1, 2, nasty, true)),
+            nasty, false));
+        assertSameAsGson(new StateSnapshot(null, null, List.of(), null, null, false));
+        assertSameAsGson(new DeltaSnapshot(null, 1, 0, null, Arrays.asList(1, null), null, null,
+            List.of(), List.of(), null, true));
+    }
+
+    @Test
+    public void rejectsNonFiniteNumbersLikeGson() {
+        StateSnapshot state = new StateSnapshot(StateSnapshot.TYPE,
+            List.of(new PlayerView(1, Double.NaN, 0, "red", 3, 0, false, 0)), List.of(), List.of(), "map2", true);
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.toJsonReflective(state));
+        assertThrows(IllegalArgumentException.class, () -> serializer.toJson(state));
+    }
+
+    @Test
+    public void appendsToAReusedBuffer() {
+        List<ProjectileView> projectiles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            projectiles.add(new ProjectileView(i, i * 1.5, i / 3.0, 400, 0));
+        }
+        StateSnapshot state = new StateSnapshot(StateSnapshot.TYPE, List.of(), projectiles, List.of(), "map1", true);
+        StringBuilder out = new StringBuilder("prefix:");
+
+        serializer.toJson(state, out);
+
+        assertEquals("prefix:" + serializer.toJsonReflective(state), out.toString());
+    }
+
+    private void assertSameAsGson(Object message) {
+        assertEquals(serializer.toJsonReflective(message), json(message));
+    }
+
+    private String json(Object message) {
+        StringBuilder out = new StringBuilder();
+        serializer.toJson(message, out);
+        assertEquals(out.toString(), serializer.toJson(message));
+        return out.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.SnapshotPublisher;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+
+public class SnapshotPublisherTest {
+
+    private SnapshotPublisher publisher;
+
+    @AfterEach
+    public void tearDown() {
+        if (publisher != null) publisher.shutdown();
+    }
+
+    @Test
+    public void publishingReturnsBeforeTheSnapshotIsSent() throws Exception {
+        Recorder server = new Recorder();
+        publisher = new SnapshotPublisher(server, 2);
+        SnapshotHistory history = new SnapshotHistory();
+
+        publisher.publish("g", history, snapshot("first"));
+        assertTrue(server.firstCall.await(5, TimeUnit.SECONDS));
+        publisher.publish("g", history, snapshot("second"));
+        server.release.countDown();
+
+        server.await(2);
+        assertEquals(List.of("first#1", "second#2"), server.sent);
+        assertTrue(server.threads.stream().allMatch(t -> t.startsWith("Snapshot-Encoder-")), server.threads.toString());
+        assertNotNull(history.get(2), "the encoder records what it sends");
+    }
+
+    @Test
+    public void newerSnapshotsReplaceWaitingOnesAndMessagesKeepTheirOrder() throws Exception {
+        Recorder server = new Recorder();
+        publisher = new SnapshotPublisher(server, 1);
+        SnapshotHistory history = new SnapshotHistory();
+
+        publisher.publish("g", history, snapshot("s1"));
+        assertTrue(server.firstCall.await(5, TimeUnit.SECONDS)); // s1 is being encoded
+        publisher.publish("g", history, snapshot("s2"));
+        publisher.publishMessage("g", "game_over");
+        publisher.publish("g", history, snapshot("s3"));
+        publisher.publish("g", history, snapshot("s4"));
+        server.release.countDown();
+
+        server.await(3);
+        assertEquals(List.of("s1#1", "game_over", "s4#2"), server.sent);
+        assertEquals(4, publisher.getPublished());
+        assertEquals(2, publisher.getCoalesced());
+        assertEquals(2, publisher.getEncoded());
+    }
+
+    @Test
+    public void removeReturnsOnceQueuedWorkIsSent() throws Exception {
+        Recorder server = new Recorder();
+        publisher = new SnapshotPublisher(server, 1);
+        SnapshotHistory history = new SnapshotHistory();
+
+        publisher.publish("g", history, snapshot("s1"));
+        assertTrue(server.firstCall.await(5, TimeUnit.SECONDS));
+        publisher.publishMessage("g", "game_over");
+        Thread remover = new Thread(() -> {
+            try {
+                publisher.remove("g");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        remover.start();
+        remover.join(100);
+        assertTrue(remover.isAlive(), "waits for the snapshot being encoded");
+
+        server.release.countDown();
+        remover.join(5_000);
+        assertFalse(remover.isAlive());
+        assertEquals(List.of("s1#1", "game_over"), server.sent);
+    }
+
+    @Test
+    public void withoutEncodersThePublisherSends() {
+        Recorder server = new Recorder();
+        server.release.countDown();
+        publisher = new SnapshotPublisher(server, 0);
+
+        publisher.publish("g", new SnapshotHistory(), snapshot("now"));
+
+        assertEquals(List.of("now#1"), server.sent);
+        assertEquals(List.of(Thread.currentThread().getName()), server.threads);
+    }
+
+    private static StateSnapshot snapshot(String map) {
+        return new StateSnapshot(StateSnapshot.TYPE, List.of(), List.of(), List.of(), map, true);
+    }
+
+    /**
+     * Records what is broadcast; the first snapshot blocks until {@code release}.
+     */
+    private static final class Recorder implements GameBroadcaster {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstCall = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void broadcastToGame(String gameId, String message) {
+            sent.add(message);
+        }
+
+        @Override
+        public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {
+            firstCall.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            threads.add(Thread.currentThread().getName());
+            sent.add(state.map() + "#" + seq);
+        }
+
+        void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sent.size() < count) {
+                assertTrue(System.currentTimeMillis() < deadline, "timed out");
+                Thread.sleep(5);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.SpatialGrid;
+
+public class SpatialGridTest {
+
+    private record Item(int id, double x, double y) {}
+
+    @Test
+    public void queryFindsEverythingBruteForceFinds() {
+        CollisionMap map = new CollisionMap(70, 60, 16, 16, new boolean[60][70]);
+        SpatialGrid<Item> grid = new SpatialGrid<>(map);
+        Random rand = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Item it = new Item(i, rand.nextDouble() * map.getPixelWidth(), rand.nextDouble() * map.getPixelHeight());
+            items.add(it);
+            grid.update(it, it.x(), it.y());
+        }
+
+        List<Item> out = new ArrayList<>();
+        for (int q = 0; q < 500; q++) {
+            double x = rand.nextDouble() * map.getPixelWidth();
+            double y = rand.nextDouble() * map.getPixelHeight();
+            double r = 23.0;
+            grid.query(x, y, r, out);
+            Set<Item> candidates = new HashSet<>(out);
+            for (Item it : items) {
+                double dx = it.x() - x, dy = it.y() - y;
+                if (dx * dx + dy * dy < r * r) {
+                    assertTrue(candidates.contains(it), "missed item " + it.id());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void updateMovesAndRemoveDrops() {
+        CollisionMap map = new CollisionMap(70, 60, 16, 16, new boolean[60][70]);
+        SpatialGrid<Item> grid = new SpatialGrid<>(map);
+        Item it = new Item(1, 0, 0);
+        List<Item> out = new ArrayList<>();
+
+        grid.update(it, 100, 100);
+        grid.update(it, 900, 800);
+        grid.query(100, 100, 10, out);
+        assertTrue(out.isEmpty(), "item left its old cell");
+        grid.query(900, 800, 10, out);
+        assertEquals(List.of(it), out);
+
+        grid.remove(it);
+        grid.query(900, 800, 10, out);
+        assertTrue(out.isEmpty());
+        assertEquals(0, grid.size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.shootergame.game.WorldState;
+import com.shootergame.game.entity.PlayerState;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.util.JsonSerializer;
+
+public class StateSnapshotWireTest {
+
+    private static final Set<String> STATE_KEYS =
+        Set.of("type", "players", "projectiles", "powerups", "map", "running");
+    private static final Set<String> PLAYER_KEYS =
+        Set.of("id", "x", "y", "color", "lives", "invulnerableTime", "hasSpeedBoost", "speedBoostTimer");
+    private static final Set<String> PROJECTILE_KEYS =
+        Set.of("id", "x", "y", "vx", "vy");
+    private static final Set<String> POWERUP_KEYS =
+        Set.of("id", "x", "y", "type", "active");
+
+    @Test
+    public void stateJsonContainsOnlyWireFields() {
+        WorldState world = new WorldState("wire-test");
+        world.applyInput(new PlayerInput(1, "RIGHT", ""));
+        world.applyInput(new PlayerInput(2, "UP", ""));
+        PlayerState shooter = world.getPlayers().get(1);
+        world.spawnProjectile(shooter, 400.0, 0.0);
+        world.spawnProjectile(shooter, 0.0, -400.0);
+
+        JsonSerializer serializer = new JsonSerializer();
+        String json = serializer.toJson(StateSnapshot.of(world));
+        JsonObject obj = serializer.fromJson(json, JsonObject.class);
+
+        assertKeys(STATE_KEYS, obj, "state");
+        assertEquals("state", obj.get("type").getAsString());
+        assertEntities(PLAYER_KEYS, obj.getAsJsonArray("players"), 2, "player");
+        assertEntities(PROJECTILE_KEYS, obj.getAsJsonArray("projectiles"), 2, "projectile");
+        assertEntities(POWERUP_KEYS, obj.getAsJsonArray("powerups"), world.getPowerups().size(), "powerup");
+        assertFalse(json.contains("blocked"), "collision grid must not be serialized");
+    }
+
+    @Test
+    public void deadPlayersAreNotSent() {
+        WorldState world = new WorldState("wire-test-dead");
+        world.applyInput(new PlayerInput(1, "RIGHT", ""));
+        world.applyInput(new PlayerInput(2, "RIGHT", ""));
+        world.getPlayers().get(2).lives = 0;
+
+        StateSnapshot snapshot = StateSnapshot.of(world);
+
+        assertEquals(1, snapshot.players().size());
+        assertEquals(1, snapshot.players().get(0).id());
+    }
+
+    private static void assertEntities(Set<String> expected, JsonArray arr, int count, String what) {
+        assertNotNull(arr, what + " array missing");
+        assertEquals(count, arr.size(), what + " count");
+        for (JsonElement e : arr) {
+            assertKeys(expected, e.getAsJsonObject(), what);
+        }
+    }
+
+    private static void assertKeys(Set<String> expected, JsonObject obj, String what) {
+        assertEquals(new TreeSet<>(expected), new TreeSet<>(obj.keySet()), what + " keys");
+    }
+}
@@ -0,0 +1,67 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspace.SequentialSpace;
+import org.jspace.Space;
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.util.TupleSpaces;
+
+public class TupleSpacesTest {
+
+    private final Space root = new SequentialSpace();
+
+    @Test
+    public void removePlayerTakesOnlyThatPlayer() throws Exception {
+        TupleSpaces.putPlayer(root, "tuples-a", 1);
+        TupleSpaces.putPlayer(root, "tuples-a", 2);
+
+        assertTrue(TupleSpaces.removePlayer(root, "tuples-a", 1));
+        assertFalse(TupleSpaces.removePlayer(root, "tuples-a", 1), "already gone");
+
+        assertEquals(1, TupleSpaces.listPlayers(root, "tuples-a").size());
+        assertEquals(List.of(2), TupleSpaces.listPlayers(root, "tuples-a"));
+    }
+
+    @Test
+    public void duplicateRegistrationsAreAllRemoved() throws Exception {
+        TupleSpaces.putPlayer(root, "tuples-dup", 3);
+        TupleSpaces.putPlayer(root, "tuples-dup", 3);
+
+        assertTrue(TupleSpaces.removePlayer(root, "tuples-dup", 3));
+        assertTrue(TupleSpaces.listPlayers(root, "tuples-dup").isEmpty());
+    }
+
+    @Test
+    public void removeFromAnyReachesEveryGameOfThePlayer() throws Exception {
+        TupleSpaces.putPlayer(root, "tuples-x", 4);
+        TupleSpaces.putPlayer(root, "tuples-y", 4);
+        TupleSpaces.putPlayer(root, "tuples-y", 5);
+
+        assertTrue(TupleSpaces.removePlayerFromAny(root, 4));
+
+        assertTrue(TupleSpaces.listPlayers(root, "tuples-x").isEmpty());
+        assertEquals(1, TupleSpaces.listPlayers(root, "tuples-y").size());
+        assertFalse(TupleSpaces.removePlayerFromAny(root, 4), "index is cleared");
+        assertFalse(TupleSpaces.removePlayerFromAny(root, 404));
+    }
+
+    @Test
+    public void worldsWithTheSameIdKeepTheirOwnInputs() {
+        WorldState before = new WorldState("tuples-same");
+        WorldState after = new WorldState("tuples-same");
+
+        after.enqueueInput(new PlayerInput(7, "UP", ""));
+
+        List<PlayerInput> drained = new ArrayList<>();
+        assertEquals(0, before.drainInputs(drained::add), "the other world's input stays put");
+        assertEquals(1, after.drainInputs(drained::add));
+        assertEquals(7, drained.get(0).playerId());
+    }
+}
@@ -0,0 +1,81 @@
+package com.shootergame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.shootergame.game.GameLoop;
+import com.shootergame.game.WorldCheckpoint;
+import com.shootergame.game.WorldState;
+import com.shootergame.game.entity.PlayerState;
+import com.shootergame.game.input.MembershipEvent;
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.game.snapshot.SnapshotHistory;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.GameBroadcaster;
+import com.shootergame.util.JsonSerializer;
+
+public class WorldCheckpointTest {
+
+    private static final GameBroadcaster NOWHERE = new GameBroadcaster() {
+        @Override
+        public void broadcastToGame(String gameId, String message) {}
+        @Override
+        public void broadcastSnapshot(String gameId, long seq, StateSnapshot state, SnapshotHistory history) {}
+    };
+
+    @Test
+    public void worldSurvivesAJsonRoundTrip() {
+        WorldState world = new WorldState("checkpoint");
+        world.enqueueMembership(MembershipEvent.join(1));
+        world.enqueueMembership(MembershipEvent.join(2));
+        world.applyMembershipChanges();
+        world.applyInput(new PlayerInput(1, "START", "map3"));
+        world.applyInput(new PlayerInput(1, "RIGHT", ""));
+        PlayerState p1 = world.getPlayers().get(1);
+        p1.applySpeedBoost();
+        p1.hit();
+        p1.applyShooting();
+        world.spawnProjectile(p1, 400, 0);
+        world.spawnProjectile(world.getPlayers().get(2), 0, -400);
+        world.getProjectiles().setLife(0, 0);
+        world.getProjectiles().removeDead(); // leaves a freed id behind
+        world.getPowerups().values().iterator().next().collect();
+
+        JsonSerializer serializer = new JsonSerializer();
+        String json = serializer.toJson(world.checkpoint());
+        WorldState copy = new WorldState("checkpoint-copy");
+        copy.restore(serializer.fromJson(json, WorldCheckpoint.class));
+
+        assertEquals(json, serializer.toJson(copy.checkpoint()));
+        assertEquals(StateSnapshot.of(world), StateSnapshot.of(copy));
+        PlayerState restored = copy.getPlayers().get(1);
+        assertTrue(restored.isRight(), "held directions carry over");
+        assertEquals(p1.shootCooldown, restored.shootCooldown);
+        assertEquals(world.getProjectiles().spawn(9, 0, 0, 0, 0), copy.getProjectiles().spawn(9, 0, 0, 0, 0),
+            "the id allocator carries over");
+    }
+
+    @Test
+    public void detachCarriesQueuedInputsAndAttachResumes() throws Exception {
+        GameLoop source = new GameLoop(NOWHERE);
+        GameLoop target = new GameLoop(NOWHERE);
+        source.submitMembership("moving", MembershipEvent.join(7));
+        source.tickOnce("moving", System.nanoTime());
+        source.submitInput("moving", new PlayerInput(7, "DOWN", ""));
+
+        WorldCheckpoint checkpoint = source.detachWorld("moving");
+        assertNull(source.detachWorld("moving"), "the world left the source loop");
+        assertEquals(1, checkpoint.step());
+        assertEquals(List.of(new PlayerInput(7, "DOWN", "", 2)), checkpoint.scheduledInputs(),
+            "input queued before the pause goes along for the next step");
+
+        WorldState moved = target.attachWorld("moving", checkpoint);
+        double y = moved.getPlayers().get(7).y;
+        target.tickOnce("moving", System.nanoTime() + 20_000_000L);
+        assertTrue(moved.getPlayers().get(7).isDown());
+        assertTrue(moved.getPlayers().get(7).y > y, "the player moves on the target");
+    }
+}
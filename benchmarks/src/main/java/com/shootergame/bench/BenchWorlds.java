@@ -0,0 +1,82 @@
+package com.shootergame.bench;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.entity.PlayerState;
+import com.shootergame.game.entity.ProjectileStore;
+import com.shootergame.game.input.MembershipEvent;
+
+/**
+ * Builds populated worlds for the suites. Entities are scattered uniformly over
+ * the map with a fixed seed, so every run measures the same layout.
+ */
+final class BenchWorlds {
+
+    private BenchWorlds() {
+        // Utility class
+    }
+
+    /** Collision layers of the shipped maps, as configured in WorldState. */
+    static final List<String> COLLISION_LAYERS = List.of("Walls", "Walls2", "Objects");
+
+    /**
+     * A map file under frontend/public/assets/maps. Suites run from the repository
+     * root, like the worlds they build; module directories are tolerated too.
+     */
+    static Path mapPath(String file) {
+        Path cwd = Path.of("").toAbsolutePath();
+        String dir = cwd.getFileName().toString();
+        Path root = dir.equalsIgnoreCase("backend") || dir.equalsIgnoreCase("benchmarks") ? cwd.getParent() : cwd;
+        return root.resolve("frontend").resolve("public").resolve("assets").resolve("maps").resolve(file);
+    }
+
+    /**
+     * Join and place {@code players} players and spawn {@code projectiles} projectiles.
+     */
+    static void populate(WorldState world, int players, int projectiles, Random rand) {
+        double w = world.getCollisionMap().getPixelWidth();
+        double h = world.getCollisionMap().getPixelHeight();
+        for (int i = 1; i <= players; i++) {
+            world.enqueueMembership(MembershipEvent.join(i));
+        }
+        world.applyMembershipChanges();
+        for (int i = 1; i <= players; i++) {
+            PlayerState ps = world.getPlayers().get(i);
+            ps.x = rand.nextDouble() * w;
+            ps.y = rand.nextDouble() * h;
+        }
+        topUpProjectiles(world, players, projectiles, rand);
+    }
+
+    /**
+     * Spawn random projectiles until the world holds {@code target} of them.
+     */
+    static void topUpProjectiles(WorldState world, int players, int target, Random rand) {
+        double w = world.getCollisionMap().getPixelWidth();
+        double h = world.getCollisionMap().getPixelHeight();
+        ProjectileStore store = world.getProjectiles();
+        while (store.size() < target) {
+            PlayerState owner = world.getPlayers().get(1 + rand.nextInt(players));
+            double angle = rand.nextDouble() * Math.PI * 2;
+            world.spawnProjectile(owner, Math.cos(angle) * 400, Math.sin(angle) * 400);
+            store.setPosition(store.size() - 1, rand.nextDouble() * w, rand.nextDouble() * h);
+        }
+    }
+
+    /**
+     * Hits kill projectiles and make players invulnerable; undo that between invocations.
+     */
+    static void reset(WorldState world) {
+        ProjectileStore projectiles = world.getProjectiles();
+        for (int i = 0; i < projectiles.size(); i++) {
+            projectiles.setLife(i, 5.0);
+        }
+        for (PlayerState ps : world.getPlayers().values()) {
+            ps.lives = 3;
+            ps.invulnerableTime = 0.0;
+        }
+    }
+}
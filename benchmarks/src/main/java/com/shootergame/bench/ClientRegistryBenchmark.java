@@ -0,0 +1,80 @@
+package com.shootergame.bench;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft_6455;
+import org.jspace.SequentialSpace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.network.ClientRegistry;
+import com.shootergame.network.NetworkServer;
+
+/**
+ * Looking up the sockets of one game, which every broadcast does, and a player
+ * joining and leaving a game, against the number of games the registry holds.
+ * Sockets are never connected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientRegistryBenchmark {
+
+    private static final int PLAYERS_PER_GAME = 4;
+
+    @Param({"1", "50", "250"})
+    public int games;
+
+    private NetworkServer server;
+    private ClientRegistry registry;
+    private String targetGame;
+    private WebSocketImpl joiner;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = new NetworkServer(new InetSocketAddress("127.0.0.1", 0), new SequentialSpace());
+        registry = new ClientRegistry();
+        int playerId = 1;
+        for (int g = 0; g < games; g++) {
+            for (int p = 0; p < PLAYERS_PER_GAME; p++) {
+                registry.register(new WebSocketImpl(server, new Draft_6455()), "g" + g, playerId++);
+            }
+        }
+        targetGame = "g" + (games / 2);
+        joiner = new WebSocketImpl(server, new Draft_6455());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Benchmark
+    public List<?> getSocketsForGame() {
+        return registry.getSocketsForGame(targetGame);
+    }
+
+    @Benchmark
+    public int registerAndUnregister() {
+        registry.register(joiner, "joining", 1);
+        registry.unregister(joiner);
+        return registry.getClientCount();
+    }
+}
@@ -0,0 +1,85 @@
+package com.shootergame.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.shootergame.game.GameLoop;
+import com.shootergame.game.WorldState;
+import com.shootergame.game.entity.PlayerState;
+import com.shootergame.game.entity.PowerupState;
+import com.shootergame.game.entity.ProjectileStore;
+
+/**
+ * Per-tick hit detection against entity count: the grid broadphase used by
+ * {@link GameLoop#checkCollisions} against the former all-pairs loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"2", "6", "32"})
+    public int players;
+
+    @Param({"10", "200", "1000"})
+    public int projectiles;
+
+    private WorldState world;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        world = new WorldState("bench");
+        BenchWorlds.populate(world, players, projectiles, new Random(players * 31L + projectiles));
+    }
+
+    @Benchmark
+    public void grid() {
+        BenchWorlds.reset(world);
+        world.updatePlayerGrid();
+        GameLoop.checkCollisions(world);
+        world.checkPowerupCollisions();
+    }
+
+    @Benchmark
+    public void allPairs(Blackhole bh) {
+        BenchWorlds.reset(world);
+        ProjectileStore store = world.getProjectiles();
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.isAlive(i)) continue;
+            for (PlayerState player : world.getPlayers().values()) {
+                if (store.owner(i) == player.id || player.isInvulnerable()) continue;
+                double dx = store.x(i) - player.x;
+                double dy = store.y(i) - player.y;
+                if (Math.sqrt(dx * dx + dy * dy) < 23) {
+                    player.hit();
+                    store.kill(i);
+                    break;
+                }
+            }
+        }
+        for (PlayerState player : world.getPlayers().values()) {
+            for (PowerupState powerup : world.getPowerups().values()) {
+                double dx = powerup.x - player.x;
+                double dy = powerup.y - player.y;
+                bh.consume(powerup.active && Math.sqrt(dx * dx + dy * dy) < 20.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.shootergame.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.map.CollisionMapFile;
+
+/**
+ * Tile lookups on the packed bitset against the former boolean[][] layout, the
+ * clearance fast path for a player step against two point probes, projectile
+ * raycasts, and loading a map from Tiled JSON against the compiled binary format.
+ * Run with {@code -prof gc} to compare the heap each loader allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionMapBenchmark {
+
+    private static final int LOOKUPS = 1 << 12;
+
+    @Param({"Map2.tmj", "Map3.tmj"})
+    public String mapFile;
+
+    private CollisionMap map;
+    private GridLayout grid;
+    private Path binaryFile;
+    private final double[] xs = new double[LOOKUPS];
+    private final double[] ys = new double[LOOKUPS];
+    private final double[] dxs = new double[LOOKUPS];
+    private final double[] dys = new double[LOOKUPS];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        map = CollisionMap.fromTiled(BenchWorlds.mapPath(mapFile), BenchWorlds.COLLISION_LAYERS);
+        grid = GridLayout.from(map);
+        binaryFile = Files.createTempFile("bench", CollisionMapFile.EXTENSION);
+        CollisionMapFile.write(map, 0L, binaryFile);
+        Random rand = new Random(1);
+        for (int i = 0; i < LOOKUPS; i++) {
+            xs[i] = rand.nextDouble() * map.getPixelWidth();
+            ys[i] = rand.nextDouble() * map.getPixelHeight();
+            // One projectile tick at 400 px/s and 20 ms, in a random direction
+            double angle = rand.nextDouble() * Math.PI * 2;
+            dxs[i] = Math.cos(angle) * 8;
+            dys[i] = Math.sin(angle) * 8;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int isBlocked() {
+        int n = 0;
+        for (int i = 0; i < LOOKUPS; i++) if (map.isBlocked(xs[i], ys[i])) n++;
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int isBlockedBooleanGrid() {
+        int n = 0;
+        for (int i = 0; i < LOOKUPS; i++) if (grid.isBlocked(xs[i], ys[i])) n++;
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int playerStepProbes() {
+        int n = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (map.isBlocked(xs[i] + 4, ys[i])) n++;
+            if (map.isBlocked(xs[i], ys[i] + 4)) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int playerStepClearance() {
+        int n = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (map.clearance(xs[i], ys[i]) <= 4) {
+                if (map.isBlocked(xs[i] + 4, ys[i])) n++;
+                if (map.isBlocked(xs[i], ys[i] + 4)) n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int projectileRaycast() {
+        int n = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (map.raycast(xs[i], ys[i], xs[i] + dxs[i], ys[i] + dys[i], null)) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 50)
+    public CollisionMap fromTiled() throws Exception {
+        return CollisionMap.fromTiled(BenchWorlds.mapPath(mapFile), BenchWorlds.COLLISION_LAYERS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 50)
+    public CollisionMap fromBinary() throws Exception {
+        return CollisionMapFile.read(binaryFile, 0L);
+    }
+
+    /** The former layout: one boolean[] per row and a floating-point floor per lookup. */
+    private record GridLayout(int width, int height, int tileWidth, int tileHeight, boolean[][] blocked) {
+        static GridLayout from(CollisionMap map) {
+            boolean[][] b = new boolean[map.getHeight()][map.getWidth()];
+            for (int y = 0; y < map.getHeight(); y++) {
+                for (int x = 0; x < map.getWidth(); x++) {
+                    b[y][x] = map.isBlocked(x * map.getTileWidth() + 0.5, y * map.getTileHeight() + 0.5);
+                }
+            }
+            return new GridLayout(map.getWidth(), map.getHeight(), map.getTileWidth(), map.getTileHeight(), b);
+        }
+
+        boolean isBlocked(double x, double y) {
+            int tx = (int) Math.floor(x / tileWidth);
+            int ty = (int) Math.floor(y / tileHeight);
+            if (tx < 0 || ty < 0 || tx >= width || ty >= height) return true;
+            return blocked[ty][tx];
+        }
+    }
+}
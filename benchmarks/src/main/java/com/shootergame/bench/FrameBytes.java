@@ -0,0 +1,33 @@
+package com.shootergame.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary result for benchmarks that build frames: the average payload size
+ * in bytes over an iteration, reported next to the time as bytesPerFrame.
+ */
+@AuxCounters(AuxCounters.Type.EVENTS)
+@State(Scope.Thread)
+public class FrameBytes {
+    private long frames;
+    private long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        frames = 0L;
+        bytes = 0L;
+    }
+
+    void add(int frameBytes) {
+        frames++;
+        bytes += frameBytes;
+    }
+
+    public long bytesPerFrame() {
+        return frames == 0 ? 0L : bytes / frames;
+    }
+}
@@ -0,0 +1,85 @@
+package com.shootergame.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspace.SequentialSpace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.shootergame.game.input.PlayerInput;
+import com.shootergame.space.GameSpace;
+import com.shootergame.space.JSpaceGameSpace;
+import com.shootergame.space.StripedGameSpace;
+
+/**
+ * The two game space backends under contention: three network threads
+ * producing inputs while the tick drains them, and three threads churning
+ * player registrations while the tick lists players.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameSpaceBenchmark {
+
+    private static final int DRAIN_BATCH = 256;
+    private static final PlayerInput INPUT = new PlayerInput(1, "UP", "");
+
+    @Param({"jspace", "striped"})
+    public String backend;
+
+    private GameSpace space;
+    private final AtomicInteger nextPlayer = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        // Fresh space per iteration so leftover inputs never carry over
+        space = "striped".equals(backend) ? new StripedGameSpace() : new JSpaceGameSpace(new SequentialSpace());
+    }
+
+    @Benchmark
+    @Group("inputs")
+    @GroupThreads(3)
+    public void putInput() throws InterruptedException {
+        space.putInput(INPUT);
+    }
+
+    @Benchmark
+    @Group("inputs")
+    @GroupThreads(1)
+    public void drainInputs(Blackhole bh) throws InterruptedException {
+        space.drainInputs(DRAIN_BATCH, bh::consume);
+    }
+
+    @Benchmark
+    @Group("players")
+    @GroupThreads(3)
+    public boolean joinAndLeave() throws InterruptedException {
+        int id = nextPlayer.incrementAndGet();
+        space.putPlayer(id);
+        return space.removePlayer(id);
+    }
+
+    @Benchmark
+    @Group("players")
+    @GroupThreads(1)
+    public int listPlayers() throws InterruptedException {
+        return space.players().size();
+    }
+}
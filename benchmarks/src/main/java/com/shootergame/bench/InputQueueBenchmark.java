@@ -0,0 +1,58 @@
+package com.shootergame.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.input.PlayerInput;
+
+/**
+ * The input path from the network thread to the world: enqueue a batch of player
+ * inputs, then drain and apply them at the tick boundary. Reported per input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputQueueBenchmark {
+
+    private static final int BATCH = 64;
+    private static final String[] ACTIONS = {"UP", "STOP_UP", "LEFT", "STOP_LEFT", "DOWN", "STOP_DOWN", "FIRE"};
+
+    private WorldState world;
+    private final PlayerInput[] inputs = new PlayerInput[BATCH];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        world = new WorldState("bench");
+        BenchWorlds.populate(world, 6, 0, new Random(3));
+        Random rand = new Random(5);
+        for (int i = 0; i < BATCH; i++) {
+            inputs[i] = new PlayerInput(1 + rand.nextInt(6), ACTIONS[rand.nextInt(ACTIONS.length)], "");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int enqueueAndDrain() {
+        for (PlayerInput input : inputs) {
+            world.enqueueInput(input);
+        }
+        return world.drainInputs(world::applyInput);
+    }
+}
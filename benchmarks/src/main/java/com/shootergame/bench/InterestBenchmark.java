@@ -0,0 +1,109 @@
+package com.shootergame.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.game.map.CollisionMap;
+import com.shootergame.game.snapshot.AreaOfInterest;
+import com.shootergame.game.snapshot.InterestIndex;
+import com.shootergame.game.snapshot.PlayerView;
+import com.shootergame.game.snapshot.PowerupView;
+import com.shootergame.game.snapshot.ProjectileView;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.FrameEncoder;
+import com.shootergame.util.JsonSerializer;
+
+/**
+ * Building every client's "state" frame for one broadcast as the map grows,
+ * sending each client the whole world (radius 0) or its area of interest.
+ * Entities keep the density of the shipped maps, so whole-world frames grow
+ * with the map while filtered ones stay about a screen's worth. The
+ * bytesPerFrame counter is the average client's frame size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterestBenchmark {
+
+    // Map edge in 16 px tiles; 70 is about the shipped maps
+    @Param({"70", "140", "280"})
+    public int mapTiles;
+
+    @Param({"0", "400"})
+    public int radius;
+
+    // Per 70x70 tiles of map
+    private static final int PLAYERS_PER_AREA = 8;
+    private static final int PROJECTILES_PER_PLAYER = 4;
+    private static final int POWERUPS_PER_AREA = 3;
+
+    private CollisionMap map;
+    private StateSnapshot state;
+    private InterestIndex index;
+    private final List<AreaOfInterest> clients = new ArrayList<>();
+    private long seq = 0L;
+    private final JsonSerializer serializer = new JsonSerializer();
+    private final FrameEncoder encoder = new FrameEncoder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        map = new CollisionMap(mapTiles, mapTiles, 16, 16, new long[(mapTiles * mapTiles + 63) / 64]);
+        double areas = (mapTiles * mapTiles) / (70.0 * 70.0);
+        int players = (int) Math.round(PLAYERS_PER_AREA * areas);
+        Random rand = new Random(7);
+        double size = map.getPixelWidth();
+        List<PlayerView> ps = new ArrayList<>();
+        for (int i = 1; i <= players; i++) {
+            ps.add(new PlayerView(i, rand.nextDouble() * size, rand.nextDouble() * size, "green", 3, 0.0, false, 0.0));
+        }
+        List<ProjectileView> prs = new ArrayList<>();
+        for (int i = 1; i <= players * PROJECTILES_PER_PLAYER; i++) {
+            prs.add(new ProjectileView(i, rand.nextDouble() * size, rand.nextDouble() * size, 400.0, 0.0));
+        }
+        List<PowerupView> pus = new ArrayList<>();
+        for (int i = 1; i <= Math.round(POWERUPS_PER_AREA * areas); i++) {
+            pus.add(new PowerupView(i, rand.nextDouble() * size, rand.nextDouble() * size, "speed", true));
+        }
+        state = new StateSnapshot(StateSnapshot.TYPE, ps, prs, pus, "bench", true);
+        index = radius > 0 ? new InterestIndex(radius, 64.0) : null;
+        for (int i = 0; i < players; i++) {
+            clients.add(new AreaOfInterest());
+        }
+    }
+
+    @Benchmark
+    public int clientFrames(FrameBytes counters) {
+        seq++;
+        if (index != null) {
+            index.index(state, map);
+        }
+        int total = 0;
+        for (int i = 0; i < clients.size(); i++) {
+            StateSnapshot view = index != null
+                ? clients.get(i).filter(seq, state, index, state.players().get(i).id())
+                : state;
+            encoder.encodeJson(serializer, view);
+            counters.add(encoder.lastPayloadSize());
+            total += encoder.lastPayloadSize();
+        }
+        return total;
+    }
+}
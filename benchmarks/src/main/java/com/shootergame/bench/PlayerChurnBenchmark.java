@@ -0,0 +1,104 @@
+package com.shootergame.bench;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jspace.ActualField;
+import org.jspace.FormalField;
+import org.jspace.SequentialSpace;
+import org.jspace.Space;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.util.TupleSpaces;
+
+/**
+ * Disconnect handling against the number of live games: one player leaves and
+ * rejoins, through the player index in {@link TupleSpaces} and through the former
+ * scan of every game space. A mass disconnect costs this times the sockets dropped.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerChurnBenchmark {
+
+    private static final int PLAYERS_PER_GAME = 4;
+
+    @Param({"10", "100", "500"})
+    public int games;
+
+    private final Space root = new SequentialSpace();
+    // The former layout for the baseline: no index, every game space is scanned
+    private final Map<String, Space> scanSpaces = new HashMap<>();
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        for (int g = 0; g < games; g++) {
+            String gid = gameId(g);
+            Space scan = new SequentialSpace();
+            scanSpaces.put(gid, scan);
+            for (int p = 0; p < PLAYERS_PER_GAME; p++) {
+                int pid = playerId(g, p);
+                TupleSpaces.putPlayer(root, gid, pid);
+                scan.put(TupleSpaces.PLAYER, pid);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean leaveAndRejoinIndexed() throws InterruptedException {
+        int g = nextGame();
+        int pid = playerId(g, 0);
+        boolean removed = TupleSpaces.removePlayerFromAny(root, pid);
+        TupleSpaces.putPlayer(root, gameId(g), pid);
+        return removed;
+    }
+
+    @Benchmark
+    public boolean leaveAndRejoinScan() throws InterruptedException {
+        int g = nextGame();
+        int pid = playerId(g, 0);
+        boolean removed = false;
+        for (Space s : scanSpaces.values()) {
+            List<Object[]> found = s.queryAll(new ActualField(TupleSpaces.PLAYER), new FormalField(Integer.class));
+            for (Object[] r : found) {
+                if (((Number) r[1]).intValue() == pid) {
+                    s.get(new ActualField(TupleSpaces.PLAYER), new ActualField(pid));
+                    removed = true;
+                }
+            }
+        }
+        scanSpaces.get(gameId(g)).put(TupleSpaces.PLAYER, pid);
+        return removed;
+    }
+
+    private int nextGame() {
+        next = next + 1 == games ? 0 : next + 1;
+        return next;
+    }
+
+    // Game spaces are process-wide, so ids include the trial's game count
+    private String gameId(int g) {
+        return "churn-" + games + "-" + g;
+    }
+
+    private int playerId(int g, int p) {
+        return games * 1_000_000 + g * PLAYERS_PER_GAME + p;
+    }
+}
@@ -0,0 +1,87 @@
+package com.shootergame.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.framing.Framedata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.game.WorldState;
+import com.shootergame.game.snapshot.StateSnapshot;
+import com.shootergame.network.BinarySnapshotEncoder;
+import com.shootergame.network.FrameEncoder;
+import com.shootergame.util.JsonSerializer;
+
+/**
+ * Cost of producing a full "state" message: capturing the snapshot, serializing
+ * it to a String (by the snapshot writer or by Gson reflection, for comparison),
+ * and encoding it into a pooled WebSocket frame, as JSON or in
+ * the binary format. The bytesPerFrame counter compares the two payloads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"6", "32"})
+    public int players;
+
+    @Param({"10", "200"})
+    public int projectiles;
+
+    private WorldState world;
+    private StateSnapshot state;
+    private final JsonSerializer serializer = new JsonSerializer();
+    private final FrameEncoder encoder = new FrameEncoder();
+    private final BinarySnapshotEncoder binaryEncoder = new BinarySnapshotEncoder();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        world = new WorldState("bench");
+        BenchWorlds.populate(world, players, projectiles, new Random(7));
+        state = StateSnapshot.of(world);
+    }
+
+    @Benchmark
+    public StateSnapshot snapshot() {
+        return StateSnapshot.of(world);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return serializer.toJson(state);
+    }
+
+    @Benchmark
+    public String toJsonReflective() {
+        return serializer.toJsonReflective(state);
+    }
+
+    @Benchmark
+    public Framedata encodeFrame(FrameBytes counters) {
+        Framedata frame = encoder.encodeJson(serializer, state);
+        counters.add(encoder.lastPayloadSize());
+        return frame;
+    }
+
+    @Benchmark
+    public Framedata encodeBinaryFrame(FrameBytes counters) {
+        Framedata frame = binaryEncoder.encode(state, world.getCollisionMap());
+        counters.add(binaryEncoder.lastPayloadSize());
+        return frame;
+    }
+}
@@ -0,0 +1,63 @@
+package com.shootergame.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jspace.SequentialSpace;
+import org.jspace.Space;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.util.TupleSpaces;
+
+/**
+ * Player registration throughput through the configured game space backend:
+ * a join/leave cycle and the player listing, against the number of players
+ * already in the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleSpacesBenchmark {
+
+    private static final int CHURN_ID = 1_000_000;
+
+    @Param({"4", "64"})
+    public int players;
+
+    private final Space space = new SequentialSpace();
+    private String gameId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // Game spaces are process-wide, so every trial gets its own game
+        gameId = "bench-" + players;
+        for (int i = 1; i <= players; i++) {
+            TupleSpaces.putPlayer(space, gameId, i);
+        }
+    }
+
+    @Benchmark
+    public boolean joinAndLeave() throws InterruptedException {
+        TupleSpaces.putPlayer(space, gameId, CHURN_ID);
+        return TupleSpaces.removePlayer(space, gameId, CHURN_ID);
+    }
+
+    @Benchmark
+    public List<Integer> listPlayers() throws InterruptedException {
+        return TupleSpaces.listPlayers(space, gameId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.shootergame.bench;
+
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jspace.SequentialSpace;
+import org.jspace.Space;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shootergame.game.GameLoop;
+import com.shootergame.game.WorldState;
+import com.shootergame.network.NetworkServer;
+
+/**
+ * One full world tick (inputs, membership sync, movement, collisions, throttled
+ * broadcast) against player and projectile counts. The server is never started,
+ * so broadcasts encode the state but reach no sockets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldTickBenchmark {
+
+    private static final String GAME = "bench";
+    private static final long TICK_NS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Param({"2", "6", "32"})
+    public int players;
+
+    @Param({"10", "200", "1000"})
+    public int projectiles;
+
+    private NetworkServer server;
+    private GameLoop loop;
+    private WorldState world;
+    private Random rand;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Space space = new SequentialSpace();
+        server = new NetworkServer(new InetSocketAddress("127.0.0.1", 0), space);
+        loop = new GameLoop(server);
+        world = loop.getOrCreateWorld(GAME);
+        rand = new Random(players * 31L + projectiles);
+        BenchWorlds.populate(world, players, projectiles, rand);
+        now = System.nanoTime();
+        loop.tickOnce(GAME, now);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        loop.stop();
+        server.stop();
+    }
+
+    @Benchmark
+    public void tick() {
+        // Keep the entity counts steady: projectiles expire and players get hit
+        BenchWorlds.reset(world);
+        BenchWorlds.topUpProjectiles(world, players, projectiles, rand);
+        now += TICK_NS;
+        loop.tickOnce(GAME, now);
+    }
+}
@@ -0,0 +1,79 @@
+// Compare a JMH JSON result file against a stored baseline.
+//
+//   node scripts/bench-compare.js [results] [baseline] [--threshold=10] [--save]
+//
+// Defaults: benchmarks/target/jmh-result.json against benchmarks/baseline.json.
+// Exits with 1 when any benchmark got worse than the threshold (percent).
+// --save copies the results over the baseline instead of comparing.
+const fs = require('fs');
+const path = require('path');
+
+const root = path.resolve(__dirname, '..');
+const args = process.argv.slice(2);
+const files = args.filter((a) => !a.startsWith('--'));
+const resultsFile = path.resolve(files[0] || path.join(root, 'benchmarks', 'target', 'jmh-result.json'));
+const baselineFile = path.resolve(files[1] || path.join(root, 'benchmarks', 'baseline.json'));
+const thresholdArg = args.find((a) => a.startsWith('--threshold='));
+const threshold = thresholdArg ? Number(thresholdArg.split('=')[1]) : 10;
+
+function load(file) {
+  if (!fs.existsSync(file)) {
+    console.error(`Missing ${path.relative(root, file)}`);
+    process.exit(2);
+  }
+  return JSON.parse(fs.readFileSync(file, 'utf8'));
+}
+
+// One key per benchmark method and parameter combination
+function key(run) {
+  const params = Object.entries(run.params || {})
+    .sort(([a], [b]) => a.localeCompare(b))
+    .map(([k, v]) => `${k}=${v}`)
+    .join(',');
+  const name = run.benchmark.replace(/^com\.shootergame\.bench\./, '');
+  return params ? `${name}(${params})` : name;
+}
+
+// Throughput improves upwards, every time-based mode downwards
+function changePercent(run, base) {
+  const delta = (run.primaryMetric.score - base.primaryMetric.score) / base.primaryMetric.score * 100;
+  return run.mode === 'thrpt' ? -delta : delta;
+}
+
+const results = load(resultsFile);
+
+if (args.includes('--save')) {
+  fs.writeFileSync(baselineFile, JSON.stringify(results, null, 2) + '\n');
+  console.log(`Saved ${results.length} results to ${path.relative(root, baselineFile)}`);
+  process.exit(0);
+}
+
+const baseline = new Map(load(baselineFile).map((run) => [key(run), run]));
+let regressions = 0;
+
+for (const run of results) {
+  const k = key(run);
+  const base = baseline.get(k);
+  const unit = run.primaryMetric.scoreUnit;
+  const score = run.primaryMetric.score.toFixed(3);
+  if (!base) {
+    console.log(`  ${'new'.padEnd(6)} ${k}: ${score} ${unit}`);
+    continue;
+  }
+  if (base.primaryMetric.scoreUnit !== unit || base.mode !== run.mode) {
+    console.log(`  ${'skip'.padEnd(6)} ${k}: unit or mode changed`);
+    continue;
+  }
+  const change = changePercent(run, base);
+  const worse = change > threshold;
+  if (worse) regressions++;
+  const tag = (worse ? 'WORSE' : change < -threshold ? 'better' : 'same').padEnd(6);
+  const sign = change > 0 ? '+' : '';
+  console.log(`  ${tag} ${k}: ${base.primaryMetric.score.toFixed(3)} -> ${score} ${unit} (${sign}${change.toFixed(1)}% cost)`);
+}
+
+if (regressions > 0) {
+  console.error(`${regressions} benchmark(s) regressed by more than ${threshold}%`);
+  process.exit(1);
+}
+console.log(`No regressions beyond ${threshold}%`);